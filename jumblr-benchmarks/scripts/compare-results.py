@@ -0,0 +1,49 @@
+#!/usr/bin/env python3
+"""Compare two JMH JSON result files, such as those written by run-benchmarks.sh for two releases.
+
+Prints, for every benchmark and parameter set found in both, the throughput and the bytes allocated per operation
+(gc.alloc.rate.norm, present when run with -prof gc) of each run and the change between them.
+
+Usage: scripts/compare-results.py results/BASELINE.json results/CANDIDATE.json
+"""
+import json
+import sys
+
+
+def load(path):
+    with open(path) as f:
+        runs = json.load(f)
+    results = {}
+    for run in runs:
+        params = ",".join("%s=%s" % kv for kv in sorted(run.get("params", {}).items()))
+        name = run["benchmark"].rsplit(".", 2)
+        key = "%s.%s" % (name[-2], name[-1]) + ("[%s]" % params if params else "")
+        alloc = run.get("secondaryMetrics", {}).get("gc.alloc.rate.norm", {}).get("score")
+        results[key] = (run["primaryMetric"]["score"], run["primaryMetric"]["scoreUnit"], alloc)
+    return results
+
+
+def change(before, after):
+    if before is None or after is None or before == 0:
+        return ""
+    return "%+.1f%%" % ((after - before) * 100.0 / before)
+
+
+def main(argv):
+    if len(argv) != 3:
+        sys.stderr.write(__doc__)
+        return 2
+    baseline, candidate = load(argv[1]), load(argv[2])
+    row = "%-60s %14s %14s %8s %12s %12s %8s"
+    print(row % ("benchmark", "baseline", "candidate", "change", "B/op before", "B/op after", "change"))
+    for key in sorted(set(baseline) & set(candidate)):
+        b, a = baseline[key], candidate[key]
+        print(row % (key, "%.1f" % b[0], "%.1f" % a[0], change(b[0], a[0]),
+                     "" if b[2] is None else "%.0f" % b[2], "" if a[2] is None else "%.0f" % a[2], change(b[2], a[2])))
+    for key in sorted(set(baseline) ^ set(candidate)):
+        print("%-60s only in %s" % (key, "baseline" if key in baseline else "candidate"))
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main(sys.argv))
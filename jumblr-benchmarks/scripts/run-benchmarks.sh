@@ -0,0 +1,22 @@
+#!/bin/sh
+# Build jumblr and the benchmarks, run them with the GC profiler and keep the results as JSON under results/, named
+# after the jumblr version and commit so that runs of different releases can be compared with compare-results.py.
+#
+# Usage: scripts/run-benchmarks.sh [JMH options...]
+# For instance: scripts/run-benchmarks.sh ResponseDecode -f 1
+set -e
+
+here=$(cd "$(dirname "$0")/.." && pwd)
+cd "$here/.."
+mvn -B -q install -DskipTests -Dmaven.javadoc.skip=true
+
+cd "$here"
+mvn -B -q package
+
+version=$(sed -n 's:.*<jumblr.version>\(.*\)</jumblr.version>.*:\1:p' pom.xml)
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo unknown)
+mkdir -p results
+out="results/$version-$commit.json"
+
+java -jar target/benchmarks.jar -prof gc -rf json -rff "$out" "$@"
+echo "Results written to $here/$out"
@@ -0,0 +1,93 @@
+package com.tumblr.jumblr.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.tumblr.jumblr.request.Transport;
+import com.tumblr.jumblr.request.TransportResponse;
+
+/**
+ * Loads the recorded API responses under src/main/resources/fixtures
+ */
+public final class Fixtures {
+
+  private Fixtures() {
+  }
+
+  /**
+   * Read a fixture as raw bytes
+   *
+   * @param name
+   *          the fixture file name, such as "media-posts.json"
+   *
+   * @return the bytes of the fixture
+   */
+  public static byte[] bytes(final String name) {
+    final InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name);
+    if (in == null) {
+      throw new IllegalArgumentException("No such fixture: " + name);
+    }
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        out.write(buffer, 0, read);
+      }
+      in.close();
+      return out.toByteArray();
+    } catch (final IOException e) {
+      throw new IllegalStateException("Cannot read fixture " + name, e);
+    }
+  }
+
+  /**
+   * Read a fixture as a String
+   *
+   * @param name
+   *          the fixture file name
+   *
+   * @return the fixture body
+   */
+  public static String string(final String name) {
+    return new String(bytes(name), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read one member of a fixture's "response" object as a JSON string
+   *
+   * @param name
+   *          the fixture file name
+   * @param field
+   *          the member of the response to extract, such as "posts"
+   *
+   * @return the member, serialized
+   */
+  public static String responseField(final String name, final String field) {
+    final JsonElement root = new JsonParser().parse(string(name));
+    return root.getAsJsonObject().getAsJsonObject("response").get(field).toString();
+  }
+
+  /**
+   * A transport answering every request with a fixture, as the server would, handing over the bytes the way
+   * OkHttpTransport does
+   *
+   * @param name
+   *          the fixture file name
+   *
+   * @return the transport
+   */
+  public static Transport transport(final String name) {
+    final byte[] body = bytes(name);
+    final Map<String, String> headers = new HashMap<String, String>();
+    headers.put("Content-Type", "application/json; charset=utf-8");
+    return request -> new TransportResponse(200, headers, body, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.tumblr.jumblr.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import com.tumblr.jumblr.benchmarks.legacy.LegacyAudioPostTypeAdapter;
+import com.tumblr.jumblr.benchmarks.legacy.LegacyVideoPostTypeAdapter;
+import com.tumblr.jumblr.responses.LongTypeAdapter;
+import com.tumblr.jumblr.responses.PhotoTypeAdapter;
+import com.tumblr.jumblr.responses.PostDeserializer;
+import com.tumblr.jumblr.responses.ResponseCodec;
+import com.tumblr.jumblr.types.AudioPost;
+import com.tumblr.jumblr.types.Photo;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.VideoPost;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding a page of video and audio posts with the single-pass adapters against the previous tree-and-copy adapters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MediaPostDecodeBenchmark {
+
+  private static final Type POST_LIST = new TypeToken<List<Post>>() {}.getType();
+
+  private String posts;
+  private Gson singlePass;
+  private Gson legacy;
+
+  @Setup
+  public void setup() {
+    posts = Fixtures.responseField("media-posts.json", "posts");
+    singlePass = new ResponseCodec().getGson();
+    legacy = new GsonBuilder().registerTypeAdapter(Post.class, new PostDeserializer())
+        .registerTypeAdapter(Long.class, new LongTypeAdapter()).registerTypeAdapter(Photo.class, new PhotoTypeAdapter())
+        .registerTypeAdapter(VideoPost.class, new LegacyVideoPostTypeAdapter())
+        .registerTypeAdapter(AudioPost.class, new LegacyAudioPostTypeAdapter()).create();
+  }
+
+  @Benchmark
+  public List<Post> singlePass() {
+    return singlePass.fromJson(posts, POST_LIST);
+  }
+
+  @Benchmark
+  public List<Post> legacy() {
+    return legacy.fromJson(posts, POST_LIST);
+  }
+
+}
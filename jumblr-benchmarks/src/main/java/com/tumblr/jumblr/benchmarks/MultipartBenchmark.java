@@ -0,0 +1,101 @@
+package com.tumblr.jumblr.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.tumblr.jumblr.request.MultipartConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Verb;
+
+/**
+ * Building a photo upload: the whole body in memory as the legacy OAuthRequest (`inMemory`) against the streaming body
+ * the transport sends, written to a channel that discards it (`streaming`)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MultipartBenchmark {
+
+  @Param({ "65536", "4194304" })
+  public int fileSize;
+
+  private File file;
+  private Map<String, Object> body;
+  private WritableByteChannel discard;
+
+  @Setup
+  public void setup() throws IOException {
+    file = File.createTempFile("jumblr-benchmark", ".jpg");
+    final byte[] bytes = new byte[fileSize];
+    new Random(21).nextBytes(bytes);
+    Files.write(file.toPath(), bytes);
+    body = new HashMap<String, Object>();
+    body.put("type", "photo");
+    body.put("caption", "A caption with <b>markup</b>");
+    body.put("tags", "film,35mm,portra");
+    body.put("data", file);
+    discard = new WritableByteChannel() {
+      @Override
+      public int write(final ByteBuffer src) {
+        final int length = src.remaining();
+        src.position(src.limit());
+        return length;
+      }
+
+      @Override
+      public boolean isOpen() {
+        return true;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+  }
+
+  @TearDown
+  public void teardown() {
+    file.delete();
+  }
+
+  private OAuthRequest request() {
+    final OAuthRequest request = new OAuthRequest(Verb.POST, "https://api.tumblr.com/v2/blog/b.tumblr.com/post");
+    request.addBodyParameter("type", "photo");
+    return request;
+  }
+
+  @Benchmark
+  public OAuthRequest inMemory() throws IOException {
+    return new MultipartConverter(request(), body).getRequest();
+  }
+
+  @Benchmark
+  public long streaming() throws IOException {
+    final MultipartConverter converter = new MultipartConverter(request(), body);
+    converter.getBody().writeTo(discard);
+    return converter.getBody().contentLength();
+  }
+
+}
@@ -0,0 +1,42 @@
+package com.tumblr.jumblr.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.types.Notes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding a page of notes with its rollup through RequestBuilder and ResponseWrapper.getNotes
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class NotesDecodeBenchmark {
+
+  private RequestBuilder builder;
+
+  @Setup
+  public void setup() {
+    builder = new RequestBuilder(null);
+    builder.setTransport(Fixtures.transport("notes.json"));
+  }
+
+  @Benchmark
+  public Notes notes() {
+    return builder.get("/blog/staff.tumblr.com/notes", null).getNotes();
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.tumblr.jumblr.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.reflect.TypeToken;
+import com.tumblr.jumblr.responses.ResponseCodec;
+import com.tumblr.jumblr.types.Photo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding every photo of a photo-heavy blog page (photos with all their sizes) through PhotoTypeAdapter
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PhotoDecodeBenchmark {
+
+  private static final Type PHOTO_LIST = new TypeToken<List<Photo>>() {}.getType();
+
+  private String photos;
+  private Gson gson;
+
+  @Setup
+  public void setup() {
+    final JsonArray all = new JsonArray();
+    for (final JsonElement post : new JsonParser().parse(Fixtures.responseField("photo-blog.json", "posts"))
+        .getAsJsonArray()) {
+      for (final JsonElement photo : post.getAsJsonObject().getAsJsonArray("photos")) {
+        all.add(photo);
+      }
+    }
+    photos = all.toString();
+    gson = new ResponseCodec().getGson();
+  }
+
+  @Benchmark
+  public List<Photo> photos() {
+    return gson.fromJson(photos, PHOTO_LIST);
+  }
+
+}
@@ -0,0 +1,64 @@
+package com.tumblr.jumblr.benchmarks;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.responses.ResponseCodec;
+import com.tumblr.jumblr.types.Post;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding pages of posts: the whole response through RequestBuilder and ResponseWrapper.getPosts (`response`), and
+ * the posts array alone through the codec's Gson, that is PostTypeAdapter picking the subclass and the single-pass
+ * adapters reading each post (`posts`)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ResponseDecodeBenchmark {
+
+  private static final Type POST_LIST = new TypeToken<List<Post>>() {}.getType();
+
+  @Param({ "dashboard.json", "photo-blog.json", "media-posts.json", "reblog-trails.json" })
+  public String fixture;
+
+  private RequestBuilder builder;
+  private String posts;
+  private Gson gson;
+
+  @Setup
+  public void setup() {
+    builder = new RequestBuilder(null);
+    builder.setTransport(Fixtures.transport(fixture));
+    posts = Fixtures.responseField(fixture, "posts");
+    gson = new ResponseCodec().getGson();
+  }
+
+  @Benchmark
+  public List<Post> response() {
+    return builder.get("/user/dashboard", null).getPosts();
+  }
+
+  @Benchmark
+  public List<Post> posts() {
+    return gson.fromJson(posts, POST_LIST);
+  }
+
+}
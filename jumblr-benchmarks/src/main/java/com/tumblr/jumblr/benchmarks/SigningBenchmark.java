@@ -0,0 +1,86 @@
+package com.tumblr.jumblr.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import com.tumblr.jumblr.request.HmacSha1Signer;
+import com.tumblr.jumblr.request.JumblrApi;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.scribe.builder.ServiceBuilder;
+import org.scribe.builder.api.TumblrApi;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Token;
+import org.scribe.model.Verb;
+import org.scribe.oauth.OAuthService;
+import org.scribe.services.HMACSha1SignatureService;
+
+/**
+ * Signatures per second with scribe's HMACSha1SignatureService, which derives the key and gets a Mac on every call,
+ * against HmacSha1Signer, which keeps both; on their own and as part of signing a whole request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(2)
+public class SigningBenchmark {
+
+  private static final String BASE_STRING = "GET&https%3A%2F%2Fapi.tumblr.com%2Fv2%2Fuser%2Fdashboard&limit%3D20"
+      + "%26oauth_consumer_key%3Dck%26oauth_nonce%3D1234567890%26oauth_signature_method%3DHMAC-SHA1"
+      + "%26oauth_timestamp%3D1700000000%26oauth_token%3Dtoken%26oauth_version%3D1.0";
+
+  private HMACSha1SignatureService scribe;
+  private HmacSha1Signer cached;
+  private OAuthService scribeService;
+  private OAuthService cachedService;
+  private Token token;
+
+  @Setup
+  public void setup() {
+    scribe = new HMACSha1SignatureService();
+    cached = new HmacSha1Signer();
+    scribeService = new ServiceBuilder().provider(TumblrApi.class).apiKey("consumer-key").apiSecret("consumer-secret")
+        .build();
+    cachedService = new ServiceBuilder().provider(JumblrApi.class).apiKey("consumer-key").apiSecret("consumer-secret")
+        .build();
+    token = new Token("token", "token-secret");
+  }
+
+  @Benchmark
+  public String scribeSignature() {
+    return scribe.getSignature(BASE_STRING, "consumer-secret", "token-secret");
+  }
+
+  @Benchmark
+  public String cachedSignature() {
+    return cached.getSignature(BASE_STRING, "consumer-secret", "token-secret");
+  }
+
+  @Benchmark
+  public OAuthRequest scribeRequest() {
+    final OAuthRequest request = new OAuthRequest(Verb.GET, "https://api.tumblr.com/v2/user/dashboard");
+    request.addQuerystringParameter("limit", "20");
+    scribeService.signRequest(token, request);
+    return request;
+  }
+
+  @Benchmark
+  public OAuthRequest cachedRequest() {
+    final OAuthRequest request = new OAuthRequest(Verb.GET, "https://api.tumblr.com/v2/user/dashboard");
+    request.addQuerystringParameter("limit", "20");
+    cachedService.signRequest(token, request);
+    return request;
+  }
+
+}
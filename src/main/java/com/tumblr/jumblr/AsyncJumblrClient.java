@@ -0,0 +1,434 @@
+package com.tumblr.jumblr;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+import com.tumblr.jumblr.types.Blog;
+import com.tumblr.jumblr.types.Follower;
+import com.tumblr.jumblr.types.Limit;
+import com.tumblr.jumblr.types.Notes;
+import com.tumblr.jumblr.types.Notifications;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.User;
+
+/**
+ * Non-blocking view of a JumblrClient: every endpoint returns a CompletableFuture, and the call itself (signing, HTTP
+ * and decoding, all through the client's RequestBuilder) runs on an executor. Unless one is given, that is the
+ * client's executor, which uses virtual threads where the JVM has them.
+ *
+ * Each method returns a future of what the blocking method of the same name returns. Failures complete that future
+ * exceptionally with the exception the blocking call would have thrown: a JumblrException for an error response, an
+ * IOException where the blocking call declares one, a RejectedExecutionException if the executor refuses the call.
+ * How it surfaces depends on how the result is read: {@code join()} throws it wrapped in a CompletionException,
+ * {@code get()} wrapped in an ExecutionException, and stages chained with {@code thenApply} and the like see it wrapped
+ * in a CompletionException, so unwrap with {@code getCause()} to get the JumblrException.
+ */
+public class AsyncJumblrClient {
+
+  private final JumblrClient client;
+  private final Executor executor;
+
+  /**
+   * Run calls on the client's executor
+   *
+   * @param client
+   *          the client to make the calls with
+   */
+  public AsyncJumblrClient(final JumblrClient client) {
+    this(client, client.getExecutor());
+  }
+
+  /**
+   * Run calls on the given executor
+   *
+   * @param client
+   *          the client to make the calls with
+   * @param executor
+   *          the executor to run the calls on
+   */
+  public AsyncJumblrClient(final JumblrClient client, final Executor executor) {
+    this.client = client;
+    this.executor = executor;
+  }
+
+  /**
+   * Get the client calls are made with
+   *
+   * @return the blocking client
+   */
+  public JumblrClient getClient() {
+    return client;
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#user()}
+   */
+  public CompletableFuture<User> user() {
+    return call(() -> client.user());
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userDashboard(Map)}
+   */
+  public CompletableFuture<List<Post>> userDashboard(final Map<String, ?> options) {
+    return call(() -> client.userDashboard(options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userDashboard()}
+   */
+  public CompletableFuture<List<Post>> userDashboard() {
+    return call(() -> client.userDashboard());
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userLimits(Map)}
+   */
+  public CompletableFuture<Map<String, Limit>> userLimits(final Map<String, ?> options) {
+    return call(() -> client.userLimits(options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userLimits()}
+   */
+  public CompletableFuture<Map<String, Limit>> userLimits() {
+    return call(() -> client.userLimits());
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userFollowing(Map)}
+   */
+  public CompletableFuture<List<Blog>> userFollowing(final Map<String, ?> options) {
+    return call(() -> client.userFollowing(options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userFollowing()}
+   */
+  public CompletableFuture<List<Blog>> userFollowing() {
+    return call(() -> client.userFollowing());
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userLikes(Map)}
+   */
+  public CompletableFuture<List<Post>> userLikes(final Map<String, ?> options) {
+    return call(() -> client.userLikes(options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#userLikes()}
+   */
+  public CompletableFuture<List<Post>> userLikes() {
+    return call(() -> client.userLikes());
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#tagged(String, Map)}
+   */
+  public CompletableFuture<List<Post>> tagged(final String tag, final Map<String, ?> options) {
+    return call(() -> client.tagged(tag, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#tagged(String)}
+   */
+  public CompletableFuture<List<Post>> tagged(final String tag) {
+    return call(() -> client.tagged(tag));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogInfo(String, Map)}
+   */
+  public CompletableFuture<Blog> blogInfo(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogInfo(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogInfo(String)}
+   */
+  public CompletableFuture<Blog> blogInfo(final String blogName) {
+    return call(() -> client.blogInfo(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogFollowers(String, Map)}
+   */
+  public CompletableFuture<List<Follower>> blogFollowers(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogFollowers(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogFollowers(String)}
+   */
+  public CompletableFuture<List<Follower>> blogFollowers(final String blogName) {
+    return call(() -> client.blogFollowers(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogLikes(String, Map)}
+   */
+  public CompletableFuture<List<Post>> blogLikes(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogLikes(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogLikes(String)}
+   */
+  public CompletableFuture<List<Post>> blogLikes(final String blogName) {
+    return call(() -> client.blogLikes(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogNotifications(String, Map)}
+   */
+  public CompletableFuture<Notifications> blogNotifications(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogNotifications(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogNotifications(String)}
+   */
+  public CompletableFuture<Notifications> blogNotifications(final String blogName) {
+    return call(() -> client.blogNotifications(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogPosts(String, Map)}
+   */
+  public CompletableFuture<List<Post>> blogPosts(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogPosts(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogPosts(String)}
+   */
+  public CompletableFuture<List<Post>> blogPosts(final String blogName) {
+    return call(() -> client.blogPosts(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogPost(String, Long, Map)}
+   */
+  public CompletableFuture<Post> blogPost(final String blogName, final Long postId, final Map<String, String> options) {
+    return call(() -> client.blogPost(blogName, postId, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogPost(String, Long)}
+   */
+  public CompletableFuture<Post> blogPost(final String blogName, final Long postId) {
+    return call(() -> client.blogPost(blogName, postId));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogQueuedPosts(String, Map)}
+   */
+  public CompletableFuture<List<Post>> blogQueuedPosts(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogQueuedPosts(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogQueuedPosts(String)}
+   */
+  public CompletableFuture<List<Post>> blogQueuedPosts(final String blogName) {
+    return call(() -> client.blogQueuedPosts(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogDraftPosts(String, Map)}
+   */
+  public CompletableFuture<List<Post>> blogDraftPosts(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogDraftPosts(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogDraftPosts(String)}
+   */
+  public CompletableFuture<List<Post>> blogDraftPosts(final String blogName) {
+    return call(() -> client.blogDraftPosts(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogSubmissions(String, Map)}
+   */
+  public CompletableFuture<List<Post>> blogSubmissions(final String blogName, final Map<String, ?> options) {
+    return call(() -> client.blogSubmissions(blogName, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogSubmissions(String)}
+   */
+  public CompletableFuture<List<Post>> blogSubmissions(final String blogName) {
+    return call(() -> client.blogSubmissions(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogFollowedBy(String, String)}
+   */
+  public CompletableFuture<Boolean> blogFollowedBy(final String blogName, final String otherBlogName) {
+    return call(() -> client.blogFollowedBy(blogName, otherBlogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogAvatar(String, Integer)}
+   */
+  public CompletableFuture<String> blogAvatar(final String blogName, final Integer size) {
+    return call(() -> client.blogAvatar(blogName, size));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogAvatar(String)}
+   */
+  public CompletableFuture<String> blogAvatar(final String blogName) {
+    return call(() -> client.blogAvatar(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogPostNotes(String, Long, Map)}
+   */
+  public CompletableFuture<Notes> blogPostNotes(final String blogName, final Long id, final Map<String, ?> options) {
+    return call(() -> client.blogPostNotes(blogName, id, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#blogPostNotes(String, Long)}
+   */
+  public CompletableFuture<Notes> blogPostNotes(final String blogName, final Long id) {
+    return call(() -> client.blogPostNotes(blogName, id));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#like(Long, String)}
+   */
+  public CompletableFuture<Void> like(final Long postId, final String reblogKey) {
+    return call(() -> {
+      client.like(postId, reblogKey);
+      return null;
+    });
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#unlike(Long, String)}
+   */
+  public CompletableFuture<Void> unlike(final Long postId, final String reblogKey) {
+    return call(() -> {
+      client.unlike(postId, reblogKey);
+      return null;
+    });
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#follow(String)}
+   */
+  public CompletableFuture<Blog> follow(final String blogName) {
+    return call(() -> client.follow(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#unfollow(String)}
+   */
+  public CompletableFuture<Blog> unfollow(final String blogName) {
+    return call(() -> client.unfollow(blogName));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postDelete(String, Long)}
+   */
+  public CompletableFuture<Void> postDelete(final String blogName, final Long postId) {
+    return call(() -> {
+      client.postDelete(blogName, postId);
+      return null;
+    });
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postReblog(String, Long, String, Map)}
+   */
+  public CompletableFuture<Post> postReblog(final String blogName, final Long postId, final String reblogKey,
+      final Map<String, ?> options) {
+    return call(() -> client.postReblog(blogName, postId, reblogKey, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postReblog(String, Long, String)}
+   */
+  public CompletableFuture<Post> postReblog(final String blogName, final Long postId, final String reblogKey) {
+    return call(() -> client.postReblog(blogName, postId, reblogKey));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postReblogId(String, Long, String, Map)}
+   */
+  public CompletableFuture<Long> postReblogId(final String blogName, final Long postId, final String reblogKey,
+      final Map<String, ?> options) {
+    return call(() -> client.postReblogId(blogName, postId, reblogKey, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postReblogId(String, Long, String)}
+   */
+  public CompletableFuture<Long> postReblogId(final String blogName, final Long postId, final String reblogKey) {
+    return call(() -> client.postReblogId(blogName, postId, reblogKey));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postReblogs(String, Collection, Map)}
+   */
+  public CompletableFuture<List<ReblogResult>> postReblogs(final String blogName,
+      final Collection<? extends Post> posts, final Map<String, ?> options) {
+    return call(() -> client.postReblogs(blogName, posts, options));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postReblogs(String, Collection)}
+   */
+  public CompletableFuture<List<ReblogResult>> postReblogs(final String blogName,
+      final Collection<? extends Post> posts) {
+    return call(() -> client.postReblogs(blogName, posts));
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postEdit(String, Long, Map)}
+   */
+  public CompletableFuture<Void> postEdit(final String blogName, final Long id, final Map<String, ?> detail) {
+    return call(() -> {
+      client.postEdit(blogName, id, detail);
+      return null;
+    });
+  }
+
+  /**
+   * Asynchronous {@link JumblrClient#postCreate(String, Map)}
+   */
+  public CompletableFuture<Long> postCreate(final String blogName, final Map<String, ?> detail) {
+    return call(() -> client.postCreate(blogName, detail));
+  }
+
+  private <T> CompletableFuture<T> call(final Call<T> call) {
+    final CompletableFuture<T> future = new CompletableFuture<T>();
+    try {
+      executor.execute(() -> {
+        try {
+          future.complete(call.call());
+        } catch (final Throwable t) {
+          future.completeExceptionally(t);
+        }
+      });
+    } catch (final RuntimeException e) {
+      future.completeExceptionally(e); // rejected by the executor
+    }
+    return future;
+  }
+
+  private interface Call<T> {
+
+    T call() throws IOException;
+
+  }
+
+}
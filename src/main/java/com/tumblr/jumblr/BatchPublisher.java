@@ -0,0 +1,171 @@
+package com.tumblr.jumblr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import com.tumblr.jumblr.types.Post;
+
+/**
+ * Saves many posts at once. Each post is encoded and uploaded on a worker thread (the client's executor unless one is
+ * given), with at most a few uploads in flight per blog; posts of different blogs go in parallel. A failed post does
+ * not stop the others: every post gets a {@link Result}, holding either its id or what went wrong. A post given more
+ * than once is saved once, and its result repeated at each of its places.
+ *
+ * Rate limiting and retries are those of the client's RequestBuilder, see {@link com.tumblr.jumblr.request.RateLimiter}
+ * and {@link com.tumblr.jumblr.request.RetryPolicy}.
+ */
+public class BatchPublisher {
+
+  private final Executor executor;
+  private final int maxPerBlog;
+
+  /**
+   * Publish on the client's executor, two posts at a time per blog
+   *
+   * @param client
+   *          the client the posts will be saved with
+   */
+  public BatchPublisher(final JumblrClient client) {
+    this(client.getExecutor(), 2);
+  }
+
+  /**
+   * @param executor
+   *          the executor to encode and upload on
+   * @param maxPerBlog
+   *          how many posts of a same blog can be in flight at once
+   */
+  public BatchPublisher(final Executor executor, final int maxPerBlog) {
+    this.executor = executor;
+    this.maxPerBlog = Math.max(1, maxPerBlog);
+  }
+
+  /**
+   * Save posts, waiting until all of them are done
+   *
+   * @param posts
+   *          the posts to save, each with its client and blog name set
+   *
+   * @return a result per post, in the order of the posts
+   */
+  public List<Result> publish(final Collection<? extends Post> posts) {
+    return JumblrExecutors.join(publishAsync(posts));
+  }
+
+  /**
+   * Save posts without waiting
+   *
+   * @param posts
+   *          the posts to save, each with its client and blog name set
+   *
+   * @return the results, a result per post in the order of the posts, once all of them are done
+   */
+  public CompletableFuture<List<Result>> publishAsync(final Collection<? extends Post> posts) {
+    final Result[] results = new Result[posts.size()];
+    final Map<String, Queue<Integer>> byBlog = new LinkedHashMap<String, Queue<Integer>>();
+    final List<Post> items = new ArrayList<Post>(posts);
+    // saving the same instance twice at once could create it twice, instead of editing what the first save created
+    final Map<Post, Integer> firsts = new IdentityHashMap<Post, Integer>();
+    final Map<Integer, Integer> duplicates = new LinkedHashMap<Integer, Integer>();
+    for (int i = 0; i < items.size(); i++) {
+      final Integer first = firsts.putIfAbsent(items.get(i), i);
+      if (first != null) {
+        duplicates.put(i, first);
+        continue;
+      }
+      final String blogName = items.get(i).getBlogName();
+      Queue<Integer> queue = byBlog.get(blogName);
+      if (queue == null) {
+        queue = new ConcurrentLinkedQueue<Integer>();
+        byBlog.put(blogName, queue);
+      }
+      queue.add(i);
+    }
+
+    // a few lanes per blog, each saving the blog's posts one after the other: bounded without parking threads
+    final List<CompletableFuture<Void>> lanes = new ArrayList<CompletableFuture<Void>>();
+    for (final Queue<Integer> queue : byBlog.values()) {
+      final int laneCount = Math.min(maxPerBlog, queue.size());
+      for (int lane = 0; lane < laneCount; lane++) {
+        lanes.add(CompletableFuture.runAsync(() -> drain(items, queue, results), executor));
+      }
+    }
+    return CompletableFuture.allOf(lanes.toArray(new CompletableFuture<?>[lanes.size()]))
+        .handle((ignored, failure) -> {
+          for (final Map.Entry<Integer, Integer> duplicate : duplicates.entrySet()) {
+            results[duplicate.getKey()] = results[duplicate.getValue()];
+          }
+          return Arrays.asList(results);
+        });
+  }
+
+  private static void drain(final List<Post> items, final Queue<Integer> queue, final Result[] results) {
+    Integer index;
+    while ((index = queue.poll()) != null) {
+      final Post post = items.get(index);
+      Result result;
+      try {
+        post.save();
+        result = post.getId() == null ? new Result(post, null, new IllegalStateException("No id returned for the post"))
+            : new Result(post, post.getId(), null);
+      } catch (final Exception e) {
+        result = new Result(post, null, e);
+      }
+      results[index] = result;
+    }
+  }
+
+  /**
+   * The outcome of saving one post
+   */
+  public static class Result {
+
+    private final Post post;
+    private final Long id;
+    private final Exception error;
+
+    Result(final Post post, final Long id, final Exception error) {
+      this.post = post;
+      this.id = id;
+      this.error = error;
+    }
+
+    public Post getPost() {
+      return post;
+    }
+
+    /**
+     * @return the id of the saved post, or null if it failed
+     */
+    public Long getId() {
+      return id;
+    }
+
+    /**
+     * @return why the post could not be saved (a JumblrException, an IOException for unreadable files...), or null
+     */
+    public Exception getError() {
+      return error;
+    }
+
+    public boolean isSuccess() {
+      return error == null;
+    }
+
+    @Override
+    public String toString() {
+      return isSuccess() ? "[saved " + post + "]" : "[failed " + post + ": " + error + "]";
+    }
+
+  }
+
+}
@@ -1,32 +1,66 @@
 package com.tumblr.jumblr;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.tumblr.jumblr.request.RateLimiter;
 import com.tumblr.jumblr.request.RateLimits;
+import com.tumblr.jumblr.request.Interceptor;
+import com.tumblr.jumblr.request.OkHttpTransport;
 import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.request.RequestListener;
+import com.tumblr.jumblr.request.RetryPolicy;
+import com.tumblr.jumblr.request.SingleFlight;
+import com.tumblr.jumblr.request.Transport;
+import com.tumblr.jumblr.request.ValidatorCache;
+import com.tumblr.jumblr.responses.ResponseCodec;
 import com.tumblr.jumblr.types.Blog;
 import com.tumblr.jumblr.types.Follower;
 import com.tumblr.jumblr.types.Limit;
+import com.tumblr.jumblr.types.Note;
 import com.tumblr.jumblr.types.Notes;
+import com.tumblr.jumblr.types.Notification;
 import com.tumblr.jumblr.types.Notifications;
 import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.Posts;
 import com.tumblr.jumblr.types.User;
 import org.scribe.model.Token;
+import org.scribe.oauth.OAuthService;
 
 /**
  * This is the base JumblrClient that is used to make requests to the Tumblr API. All calls that can be made from other
  * Resource(s) can be made from here.
  *
+ * A client is safe to share between threads. The simplest way to get one configured before it is shared is
+ * {@link Builder}, whose clients keep their configuration: only the token can be changed once they are built, the other
+ * setters of the client and of its {@link RequestBuilder} throw IllegalStateException. On a client set up through its
+ * setters instead, settings changed while calls are in flight apply to later calls.
+ *
  * @author jc
  */
 public class JumblrClient {
 
-  private RequestBuilder requestBuilder;
-  private String apiKey;
+  private volatile RequestBuilder requestBuilder;
+  private volatile String apiKey;
+  private volatile ResponseCodec codec = new ResponseCodec();
+  private volatile Executor executor;
+  private volatile ResponseCache responseCache;
+  private volatile boolean frozen;
 
   public JumblrClient() {
     requestBuilder = new RequestBuilder(this);
@@ -104,6 +138,13 @@ public class JumblrClient {
    * @return The authenticated user
    */
   public User user() {
+    final ResponseCache cache = responseCache;
+    if (cache != null) {
+      // keyed on the token, the user changes with it
+      final Token token = requestBuilder.getToken();
+      return cache.get(ResponseCache.Endpoint.USER, token == null ? "" : token.getToken(),
+          () -> requestBuilder.get("/user/info", null).getUser());
+    }
     return requestBuilder.get("/user/info", null).getUser();
   }
 
@@ -123,8 +164,26 @@ public class JumblrClient {
     return this.userDashboard(null);
   }
 
+  /**
+   * Get the dashboard one page at a time, following its next links
+   *
+   * @param options
+   *          the options for the first call (or null)
+   *
+   * @return the first Page of posts
+   */
+  public Page<Post> userDashboardPage(final Map<String, ?> options) {
+    final Posts posts = requestBuilder.get("/user/dashboard", options).getPostsWithLinks();
+    return new Page<Post>(posts.getPosts(), posts.getLinks(), options, this::userDashboardPage);
+  }
+
   public Map<String, Limit> userLimits(final Map<String, ?> options) {
-    return requestBuilder.get("/user/limits", options).getUserLimits().getUser();
+    final Map<String, Limit> limits = requestBuilder.get("/user/limits", options).getUserLimits().getUser();
+    final RateLimiter limiter = requestBuilder.getRateLimiter();
+    if (limiter != null && limits != null) {
+      limiter.update(limits);
+    }
+    return limits;
   }
 
   public Map<String, Limit> userLimits() {
@@ -187,6 +246,11 @@ public class JumblrClient {
     }
     final Map<String, Object> soptions = JumblrClient.safeOptionMap(options);
     soptions.put("api_key", apiKey);
+    final ResponseCache cache = responseCache;
+    if (cache != null && options.isEmpty()) {
+      return cache.get(ResponseCache.Endpoint.BLOG_INFO, blogUrl(blogName),
+          () -> requestBuilder.get(JumblrClient.blogPath(blogName, "/info"), soptions).getBlog());
+    }
     return requestBuilder.get(JumblrClient.blogPath(blogName, "/info"), soptions).getBlog();
   }
 
@@ -235,6 +299,26 @@ public class JumblrClient {
     return this.blogLikes(blogName, null);
   }
 
+  /**
+   * Get the public likes for a given blog one page at a time, following their next links
+   *
+   * @param blogName
+   *          the name of the blog
+   * @param options
+   *          the options for the first call (or null)
+   *
+   * @return the first Page of posts
+   */
+  public Page<Post> blogLikesPage(final String blogName, Map<String, ?> options) {
+    if (options == null) {
+      options = Collections.emptyMap();
+    }
+    final Map<String, Object> soptions = JumblrClient.safeOptionMap(options);
+    soptions.put("api_key", apiKey);
+    final Posts posts = requestBuilder.get(JumblrClient.blogPath(blogName, "/likes"), soptions).getPostsWithLinks();
+    return new Page<Post>(posts.getPosts(), posts.getLinks(), options, next -> blogLikesPage(blogName, next));
+  }
+
   /**
    * Get the activity feed for a given blog
    *
@@ -258,6 +342,22 @@ public class JumblrClient {
     return this.blogNotifications(blogName, null);
   }
 
+  /**
+   * Get the activity feed for a given blog one page at a time, following its next links
+   *
+   * @param blogName
+   *          the name of the blog
+   * @param options
+   *          the options for the first call (or null)
+   *
+   * @return the first Page of notifications
+   */
+  public Page<Notification> blogNotificationsPage(final String blogName, final Map<String, ?> options) {
+    final Notifications notifications = blogNotifications(blogName, options);
+    return new Page<Notification>(notifications.getNotifications(), notifications.getLinks(), options,
+        next -> blogNotificationsPage(blogName, next));
+  }
+
   /**
    * Get the posts for a given blog
    *
@@ -287,6 +387,53 @@ public class JumblrClient {
     return this.blogPosts(blogName, null);
   }
 
+  /**
+   * Iterate over all the posts of a blog, newest first. Pages are fetched lazily as the iterator advances, and the next
+   * one is prefetched on the {@link #getExecutor() executor} while the current one is consumed.
+   *
+   * @param blogName
+   *          the name of the blog
+   * @param options
+   *          the options for this call (or null); type and tag filter the posts, offset is where to start and limit is
+   *          the page size (at most 20)
+   * @param maxPosts
+   *          the number of posts after which to stop, 0 for all of them
+   *
+   * @return an Iterator over the posts
+   */
+  public Iterator<Post> blogPostsIterator(final String blogName, final Map<String, ?> options, final long maxPosts) {
+    return new PostIterator(this, blogName, options, maxPosts);
+  }
+
+  public Iterator<Post> blogPostsIterator(final String blogName, final Map<String, ?> options) {
+    return this.blogPostsIterator(blogName, options, 0);
+  }
+
+  public Iterator<Post> blogPostsIterator(final String blogName) {
+    return this.blogPostsIterator(blogName, null, 0);
+  }
+
+  /**
+   * Stream all the posts of a blog, newest first, fetching pages as {@link #blogPostsIterator(String, Map, long)} does
+   *
+   * @param blogName
+   *          the name of the blog
+   * @param options
+   *          the options for this call (or null)
+   * @param maxPosts
+   *          the number of posts after which to stop, 0 for all of them
+   *
+   * @return a sequential Stream of posts
+   */
+  public Stream<Post> blogPostsStream(final String blogName, final Map<String, ?> options, final long maxPosts) {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(
+        blogPostsIterator(blogName, options, maxPosts), Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  public Stream<Post> blogPostsStream(final String blogName) {
+    return this.blogPostsStream(blogName, null, 0);
+  }
+
   /**
    * Get an individual post by id
    *
@@ -382,6 +529,19 @@ public class JumblrClient {
     return this.userLikes(null);
   }
 
+  /**
+   * Get the likes for the authenticated user one page at a time, following their next links
+   *
+   * @param options
+   *          the options for the first call (or null)
+   *
+   * @return the first Page of posts
+   */
+  public Page<Post> userLikesPage(final Map<String, ?> options) {
+    final Posts posts = requestBuilder.get("/user/likes", options).getPostsWithLinks();
+    return new Page<Post>(posts.getPosts(), posts.getLinks(), options, this::userLikesPage);
+  }
+
   /**
    * Check if one of your blogs is followed by another blog
    *
@@ -409,6 +569,11 @@ public class JumblrClient {
    */
   public String blogAvatar(final String blogName, final Integer size) {
     final String pathExt = size == null ? "" : "/" + size.toString();
+    final ResponseCache cache = responseCache;
+    if (cache != null) {
+      return cache.get(ResponseCache.Endpoint.BLOG_AVATAR, blogUrl(blogName) + pathExt,
+          () -> requestBuilder.getRedirectUrl(JumblrClient.blogPath(blogName, "/avatar" + pathExt)));
+    }
     return requestBuilder.getRedirectUrl(JumblrClient.blogPath(blogName, "/avatar" + pathExt));
   }
 
@@ -416,6 +581,34 @@ public class JumblrClient {
     return this.blogAvatar(blogName, null);
   }
 
+  /**
+   * Get the avatars of several blogs at once; the lookups run concurrently on the {@link #getExecutor() executor}
+   *
+   * @param blogNames
+   *          the names of the blogs
+   * @param size
+   *          The size requested, null for the default
+   *
+   * @return the avatar URLs by blog name, in the order the names were given
+   */
+  public Map<String, String> blogAvatars(final Collection<String> blogNames, final Integer size) {
+    final Map<String, CompletableFuture<String>> pending = new LinkedHashMap<String, CompletableFuture<String>>();
+    for (final String blogName : blogNames) {
+      if (!pending.containsKey(blogName)) {
+        pending.put(blogName, CompletableFuture.supplyAsync(() -> blogAvatar(blogName, size), getExecutor()));
+      }
+    }
+    final Map<String, String> result = new LinkedHashMap<String, String>();
+    for (final Map.Entry<String, CompletableFuture<String>> entry : pending.entrySet()) {
+      result.put(entry.getKey(), JumblrExecutors.join(entry.getValue()));
+    }
+    return result;
+  }
+
+  public Map<String, String> blogAvatars(final Collection<String> blogNames) {
+    return this.blogAvatars(blogNames, null);
+  }
+
   /**
    * Like a given post
    *
@@ -457,7 +650,9 @@ public class JumblrClient {
   public Blog follow(final String blogName) {
     final Map<String, String> map = new HashMap<String, String>();
     map.put("url", JumblrClient.blogUrl(blogName));
-    return requestBuilder.post("/user/follow", map).getBlog();
+    final Blog blog = requestBuilder.post("/user/follow", map).getBlog();
+    invalidateFollow(blogName);
+    return blog;
   }
 
   /**
@@ -471,7 +666,9 @@ public class JumblrClient {
   public Blog unfollow(final String blogName) {
     final Map<String, String> map = new HashMap<String, String>();
     map.put("url", JumblrClient.blogUrl(blogName));
-    return requestBuilder.post("/user/unfollow", map).getBlog();
+    final Blog blog = requestBuilder.post("/user/unfollow", map).getBlog();
+    invalidateFollow(blogName);
+    return blog;
   }
 
   /**
@@ -486,6 +683,7 @@ public class JumblrClient {
     final Map<String, String> map = new HashMap<String, String>();
     map.put("id", postId.toString());
     requestBuilder.post(JumblrClient.blogPath(blogName, "/post/delete"), map);
+    invalidateBlog(blogName);
   }
 
   /**
@@ -503,14 +701,7 @@ public class JumblrClient {
    * @return The created reblog Post or null
    */
   public Post postReblog(final String blogName, final Long postId, final String reblogKey, Map<String, ?> options) {
-    if (options == null) {
-      options = new HashMap<String, String>();
-    }
-    final Map<String, Object> soptions = JumblrClient.safeOptionMap(options);
-    soptions.put("id", postId.toString());
-    soptions.put("reblog_key", reblogKey);
-    final Long reblogId = requestBuilder.post(JumblrClient.blogPath(blogName, "/post/reblog"), soptions).getId();
-    return blogPost(blogName, reblogId);
+    return blogPost(blogName, postReblogId(blogName, postId, reblogKey, options));
   }
 
   /**
@@ -529,6 +720,108 @@ public class JumblrClient {
     return this.postReblog(blogName, postId, reblogKey, null);
   }
 
+  /**
+   * Reblog a given post without fetching the reblog afterwards
+   *
+   * @param blogName
+   *          the name of the blog to post to
+   * @param postId
+   *          the id of the post
+   * @param reblogKey
+   *          the reblog_key of the post
+   * @param options
+   *          Additional options (or null)
+   *
+   * @return the id of the reblog
+   */
+  public Long postReblogId(final String blogName, final Long postId, final String reblogKey, Map<String, ?> options) {
+    if (options == null) {
+      options = new HashMap<String, String>();
+    }
+    final Map<String, Object> soptions = JumblrClient.safeOptionMap(options);
+    soptions.put("id", postId.toString());
+    soptions.put("reblog_key", reblogKey);
+    final Long id = requestBuilder.post(JumblrClient.blogPath(blogName, "/post/reblog"), soptions).getId();
+    invalidateBlog(blogName);
+    return id;
+  }
+
+  public Long postReblogId(final String blogName, final Long postId, final String reblogKey) {
+    return this.postReblogId(blogName, postId, reblogKey, null);
+  }
+
+  /**
+   * Reblog several posts, then fetch the reblogs with as few calls as possible: the newest posts of the blog are read
+   * a page (of 20) at a time, and only reblogs not found there (queued or drafted ones, or pushed further down by
+   * other posts) are fetched one by one. A failed reblog does not stop the others: every post gets a
+   * {@link ReblogResult}, holding either the reblog or what went wrong, so that what was published is always known.
+   *
+   * @param blogName
+   *          the name of the blog to post to
+   * @param posts
+   *          the posts to reblog, with their id and reblog_key
+   * @param options
+   *          Additional options for every reblog (or null)
+   *
+   * @return the results, in the order of the posts
+   */
+  public List<ReblogResult> postReblogs(final String blogName, final Collection<? extends Post> posts,
+      final Map<String, ?> options) {
+    final List<Post> sources = new ArrayList<Post>(posts);
+    final Long[] ids = new Long[sources.size()];
+    final RuntimeException[] errors = new RuntimeException[sources.size()];
+    final Set<Long> reblogIds = new HashSet<Long>();
+    for (int i = 0; i < sources.size(); i++) {
+      final Post post = sources.get(i);
+      try {
+        ids[i] = postReblogId(blogName, post.getId(), post.getReblogKey(), options);
+        reblogIds.add(ids[i]);
+      } catch (final RuntimeException e) {
+        errors[i] = e;
+      }
+    }
+
+    final Map<Long, Post> fetched = new HashMap<Long, Post>();
+    final int pageSize = PostIterator.MAX_PAGE_SIZE;
+    try {
+      for (int offset = 0; offset < reblogIds.size() && fetched.size() < reblogIds.size(); offset += pageSize) {
+        final Map<String, Object> page = new HashMap<String, Object>();
+        page.put("offset", offset);
+        page.put("limit", pageSize);
+        final List<Post> newest = blogPosts(blogName, page);
+        for (final Post post : newest) {
+          if (reblogIds.contains(post.getId())) {
+            fetched.put(post.getId(), post);
+          }
+        }
+        if (newest.size() < pageSize) {
+          break;
+        }
+      }
+    } catch (final RuntimeException e) {
+      // the reblogs are published all the same, fetch what is left one by one
+    }
+
+    final List<ReblogResult> results = new ArrayList<ReblogResult>(sources.size());
+    for (int i = 0; i < sources.size(); i++) {
+      Post reblog = ids[i] == null ? null : fetched.get(ids[i]);
+      if (reblog == null && ids[i] != null) {
+        try {
+          reblog = blogPost(blogName, ids[i]);
+          fetched.put(ids[i], reblog);
+        } catch (final RuntimeException e) {
+          // published but not readable yet, the id is still known
+        }
+      }
+      results.add(new ReblogResult(sources.get(i), ids[i], reblog, errors[i]));
+    }
+    return results;
+  }
+
+  public List<ReblogResult> postReblogs(final String blogName, final Collection<? extends Post> posts) {
+    return this.postReblogs(blogName, posts, null);
+  }
+
   /**
    * Save edits for a given post
    *
@@ -546,6 +839,7 @@ public class JumblrClient {
     final Map<String, Object> sdetail = JumblrClient.safeOptionMap(detail);
     sdetail.put("id", id);
     requestBuilder.postMultipart(JumblrClient.blogPath(blogName, "/post/edit"), sdetail);
+    invalidateBlog(blogName);
   }
 
   /**
@@ -562,7 +856,9 @@ public class JumblrClient {
    *           if any file specified in detail cannot be read
    */
   public Long postCreate(final String blogName, final Map<String, ?> detail) throws IOException {
-    return requestBuilder.postMultipart(JumblrClient.blogPath(blogName, "/post"), detail).getId();
+    final Long id = requestBuilder.postMultipart(JumblrClient.blogPath(blogName, "/post"), detail).getId();
+    invalidateBlog(blogName);
+    return id;
   }
 
   /**
@@ -616,6 +912,23 @@ public class JumblrClient {
     return this.blogPostNotes(blogName, id, null);
   }
 
+  /**
+   * Get the notes for a given post one page at a time, following their next links
+   *
+   * @param blogName
+   *          The blog name of the post
+   * @param id
+   *          the Post id
+   * @param options
+   *          the options for the first call (or null)
+   *
+   * @return the first Page of notes
+   */
+  public Page<Note> blogPostNotesPage(final String blogName, final Long id, final Map<String, ?> options) {
+    final Notes notes = blogPostNotes(blogName, id, options);
+    return new Page<Note>(notes.getNotes(), notes.getLinks(), options, next -> blogPostNotesPage(blogName, id, next));
+  }
+
   /**
    **
    **
@@ -630,6 +943,7 @@ public class JumblrClient {
   }
 
   public void setRequestBuilder(final RequestBuilder builder) {
+    checkNotFrozen();
     requestBuilder = builder;
   }
 
@@ -641,8 +955,346 @@ public class JumblrClient {
     return requestBuilder.getRateLimits();
   }
 
+  /**
+   * Get the codec used to decode responses for this client
+   *
+   * @return the codec
+   */
+  public ResponseCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Replace the codec used to decode responses for this client
+   *
+   * @param codec
+   *          the codec to use from now on
+   */
+  public void setCodec(final ResponseCodec codec) {
+    checkNotFrozen();
+    this.codec = codec;
+    requestBuilder.setCodec(codec);
+  }
+
+  /**
+   * Get the executor used for calls made off the calling thread (see {@link AsyncJumblrClient}), creating the default
+   * one on first use
+   *
+   * @return the executor
+   */
+  public Executor getExecutor() {
+    Executor result = executor;
+    if (result == null) {
+      synchronized (this) {
+        result = executor;
+        if (result == null) {
+          result = JumblrExecutors.newDefaultExecutor();
+          executor = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Set the executor used for calls made off the calling thread
+   *
+   * @param executor
+   *          the executor to use
+   */
+  public void setExecutor(final Executor executor) {
+    checkNotFrozen();
+    this.executor = executor;
+  }
+
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  /**
+   * Cache the results of user, blogInfo and blogAvatar
+   *
+   * @param responseCache
+   *          the cache, null (the default) for none
+   */
+  public void setResponseCache(final ResponseCache responseCache) {
+    checkNotFrozen();
+    this.responseCache = responseCache;
+  }
+
+  /**
+   * @return whether this client was made by {@link Builder}, and its configuration can no longer be changed
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new IllegalStateException("Client was made by JumblrClient.Builder, its configuration cannot be changed");
+    }
+  }
+
+  private void invalidateBlog(final String blogName) {
+    final ResponseCache cache = responseCache;
+    if (cache != null) {
+      cache.invalidate(ResponseCache.Endpoint.BLOG_INFO, blogUrl(blogName));
+    }
+  }
+
+  private void invalidateFollow(final String blogName) {
+    final ResponseCache cache = responseCache;
+    if (cache != null) {
+      // the blog's followed flag and the user's following count
+      cache.invalidate(ResponseCache.Endpoint.BLOG_INFO, blogUrl(blogName));
+      cache.invalidate(ResponseCache.Endpoint.USER, null);
+    }
+  }
+
   private static Map<String, Object> safeOptionMap(final Map<String, ?> map) {
     return new HashMap<String, Object>(map);
   }
 
+  /**
+   * Builds a fully configured client in one go
+   */
+  public static class Builder {
+
+    private final String consumerKey;
+    private final String consumerSecret;
+    private Token token;
+    private String hostname;
+    private int timeoutSeconds;
+    private Transport transport;
+    private ResponseCodec codec;
+    private Executor executor;
+    private RateLimiter rateLimiter;
+    private RetryPolicy retryPolicy;
+    private ValidatorCache validatorCache;
+    private SingleFlight singleFlight;
+    private ResponseCache responseCache;
+    private RequestListener requestListener;
+    private OAuthService service;
+    private final List<Interceptor> interceptors = new ArrayList<Interceptor>();
+
+    /**
+     * @param consumerKey
+     *          The consumer key for the client
+     * @param consumerSecret
+     *          The consumer secret for the client
+     */
+    public Builder(final String consumerKey, final String consumerSecret) {
+      this.consumerKey = consumerKey;
+      this.consumerSecret = consumerSecret;
+    }
+
+    /**
+     * @param token
+     *          The token for the client
+     * @param tokenSecret
+     *          The token secret for the client
+     *
+     * @return this builder
+     */
+    public Builder token(final String token, final String tokenSecret) {
+      this.token = new Token(token, tokenSecret);
+      return this;
+    }
+
+    /**
+     * @param token
+     *          The token for the client
+     *
+     * @return this builder
+     */
+    public Builder token(final Token token) {
+      this.token = token;
+      return this;
+    }
+
+    /**
+     * @param hostname
+     *          the API host without protocol (default "api.tumblr.com")
+     *
+     * @return this builder
+     */
+    public Builder hostname(final String hostname) {
+      this.hostname = hostname;
+      return this;
+    }
+
+    /**
+     * @param timeoutSeconds
+     *          the connect, read and write timeout (default 0, no timeout, so that large uploads are not cut off
+     *          while the server processes them)
+     *
+     * @return this builder
+     */
+    public Builder timeoutSeconds(final int timeoutSeconds) {
+      this.timeoutSeconds = timeoutSeconds;
+      return this;
+    }
+
+    /**
+     * @param transport
+     *          the transport requests are sent with (default the shared {@link OkHttpTransport#getDefault()})
+     *
+     * @return this builder
+     */
+    public Builder transport(final Transport transport) {
+      this.transport = transport;
+      return this;
+    }
+
+    /**
+     * @param codec
+     *          the codec responses are decoded with
+     *
+     * @return this builder
+     */
+    public Builder codec(final ResponseCodec codec) {
+      this.codec = codec;
+      return this;
+    }
+
+    /**
+     * @param executor
+     *          the executor for calls made off the calling thread
+     *
+     * @return this builder
+     */
+    public Builder executor(final Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * @param rateLimiter
+     *          paces calls (default none)
+     *
+     * @return this builder
+     */
+    public Builder rateLimiter(final RateLimiter rateLimiter) {
+      this.rateLimiter = rateLimiter;
+      return this;
+    }
+
+    /**
+     * @param retryPolicy
+     *          retries failed calls (default none)
+     *
+     * @return this builder
+     */
+    public Builder retryPolicy(final RetryPolicy retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+    }
+
+    /**
+     * @param validatorCache
+     *          sends GETs conditionally (default none)
+     *
+     * @return this builder
+     */
+    public Builder validatorCache(final ValidatorCache validatorCache) {
+      this.validatorCache = validatorCache;
+      return this;
+    }
+
+    /**
+     * @param singleFlight
+     *          shares identical concurrent GETs (default none)
+     *
+     * @return this builder
+     */
+    public Builder singleFlight(final SingleFlight singleFlight) {
+      this.singleFlight = singleFlight;
+      return this;
+    }
+
+    /**
+     * @param responseCache
+     *          caches the results of user, blogInfo and blogAvatar (default none)
+     *
+     * @return this builder
+     */
+    public Builder responseCache(final ResponseCache responseCache) {
+      this.responseCache = responseCache;
+      return this;
+    }
+
+    /**
+     * @param requestListener
+     *          hears about every call (default none)
+     *
+     * @return this builder
+     */
+    public Builder requestListener(final RequestListener requestListener) {
+      this.requestListener = requestListener;
+      return this;
+    }
+
+    /**
+     * @param interceptor
+     *          an interceptor that sees each call once, after those added before
+     *
+     * @return this builder
+     */
+    public Builder interceptor(final Interceptor interceptor) {
+      interceptors.add(interceptor);
+      return this;
+    }
+
+    /**
+     * Sign with an existing service rather than one of the builder's own, see {@link JumblrClientPool}
+     *
+     * @param service
+     *          the service requests are signed with
+     *
+     * @return this builder
+     */
+    Builder service(final OAuthService service) {
+      this.service = service;
+      return this;
+    }
+
+    /**
+     * @return a new client with the settings of this builder
+     */
+    public JumblrClient build() {
+      final JumblrClient client = new JumblrClient(consumerKey, consumerSecret);
+      final RequestBuilder builder = client.getRequestBuilder();
+      if (token != null) {
+        builder.setToken(token);
+      }
+      if (hostname != null) {
+        builder.setHostname(hostname);
+      }
+      builder.setTimeoutSeconds(timeoutSeconds);
+      if (transport != null) {
+        builder.setTransport(transport);
+      }
+      if (codec != null) {
+        client.setCodec(codec);
+      }
+      builder.setRateLimiter(rateLimiter);
+      builder.setRetryPolicy(retryPolicy);
+      builder.setValidatorCache(validatorCache);
+      builder.setSingleFlight(singleFlight);
+      builder.setRequestListener(requestListener);
+      for (final Interceptor interceptor : interceptors) {
+        builder.addInterceptor(interceptor);
+      }
+      if (service != null) {
+        builder.setService(service);
+      }
+      client.setExecutor(executor);
+      client.setResponseCache(responseCache);
+      builder.freeze();
+      client.frozen = true;
+      return client;
+    }
+
+  }
+
 }
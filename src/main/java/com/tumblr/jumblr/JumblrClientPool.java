@@ -0,0 +1,206 @@
+package com.tumblr.jumblr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.tumblr.jumblr.request.OkHttpTransport;
+import com.tumblr.jumblr.request.RateLimits;
+import com.tumblr.jumblr.request.Transport;
+import com.tumblr.jumblr.responses.ResponseCodec;
+import com.tumblr.jumblr.types.Blog;
+import com.tumblr.jumblr.types.Post;
+import org.scribe.oauth.OAuthService;
+
+/**
+ * Clients for many tokens of the same consumer, sharing one transport, one codec and one OAuth service.
+ *
+ * Calls about a blog go through the client of the token that blog was added with ({@link #forBlog(String)}). Public
+ * reads, which any token can make, go through the client with the most rate limit budget left
+ * ({@link #forPublicRead()}); clients not called yet count as having their whole budget.
+ */
+public class JumblrClientPool {
+
+  private final String consumerKey;
+  private final String consumerSecret;
+  private final Transport transport;
+  private final ResponseCodec codec;
+  private final OAuthService service;
+
+  private final ConcurrentMap<String, JumblrClient> byToken = new ConcurrentHashMap<String, JumblrClient>();
+  private final ConcurrentMap<String, JumblrClient> byBlog = new ConcurrentHashMap<String, JumblrClient>();
+  private final List<JumblrClient> clients = new CopyOnWriteArrayList<JumblrClient>();
+  private final AtomicInteger next = new AtomicInteger();
+
+  /**
+   * A pool over the default transport
+   *
+   * @param consumerKey
+   *          The consumer key for the clients
+   * @param consumerSecret
+   *          The consumer secret for the clients
+   */
+  public JumblrClientPool(final String consumerKey, final String consumerSecret) {
+    this(consumerKey, consumerSecret, OkHttpTransport.getDefault(), new ResponseCodec());
+  }
+
+  /**
+   * @param consumerKey
+   *          The consumer key for the clients
+   * @param consumerSecret
+   *          The consumer secret for the clients
+   * @param transport
+   *          the transport shared by the clients
+   * @param codec
+   *          the codec shared by the clients
+   */
+  public JumblrClientPool(final String consumerKey, final String consumerSecret, final Transport transport,
+      final ResponseCodec codec) {
+    this.consumerKey = consumerKey;
+    this.consumerSecret = consumerSecret;
+    this.transport = transport;
+    this.codec = codec;
+    service = new JumblrClient(consumerKey, consumerSecret).getRequestBuilder().getService();
+  }
+
+  /**
+   * Add a token, and the blogs whose calls it makes. Adding a token again adds its blogs to the existing client.
+   *
+   * @param token
+   *          The token
+   * @param tokenSecret
+   *          The token secret
+   * @param blogNames
+   *          the blogs of the token's user
+   *
+   * @return the client of the token
+   */
+  public JumblrClient add(final String token, final String tokenSecret, final String... blogNames) {
+    JumblrClient client = byToken.get(token);
+    if (client == null) {
+      final JumblrClient created = new JumblrClient.Builder(consumerKey, consumerSecret).token(token, tokenSecret)
+          .transport(transport).codec(codec).service(service).build();
+      client = byToken.putIfAbsent(token, created);
+      if (client == null) {
+        client = created;
+        clients.add(created);
+      }
+    }
+    for (final String blogName : blogNames) {
+      byBlog.put(blogKey(blogName), client);
+    }
+    return client;
+  }
+
+  /**
+   * @param blogName
+   *          a blog added with {@link #add(String, String, String...)}
+   *
+   * @return the client of the blog's token
+   */
+  public JumblrClient forBlog(final String blogName) {
+    final JumblrClient client = byBlog.get(blogKey(blogName));
+    if (client == null) {
+      throw new IllegalArgumentException("No token for blog " + blogName);
+    }
+    return client;
+  }
+
+  /**
+   * @return the client with the most rate limit budget left, taking turns between equals
+   */
+  public JumblrClient forPublicRead() {
+    final List<JumblrClient> all = new ArrayList<JumblrClient>(clients);
+    if (all.isEmpty()) {
+      throw new IllegalStateException("No token in the pool");
+    }
+    final int start = (next.getAndIncrement() & Integer.MAX_VALUE) % all.size();
+    JumblrClient best = null;
+    int bestBudget = -1;
+    for (int i = 0; i < all.size(); i++) {
+      final JumblrClient client = all.get((start + i) % all.size());
+      final int budget = budget(client.getRateLimits());
+      if (budget > bestBudget) {
+        best = client;
+        bestBudget = budget;
+      }
+    }
+    return best;
+  }
+
+  /**
+   * @return the clients of the pool, one per token
+   */
+  public List<JumblrClient> getClients() {
+    return Collections.unmodifiableList(clients);
+  }
+
+  /**
+   * Get the posts for a given tag, through the client with the most budget left
+   *
+   * @param tag
+   *          the tag to search for
+   * @param options
+   *          the options for the call (or null)
+   *
+   * @return a List of posts
+   */
+  public List<Post> tagged(final String tag, final Map<String, ?> options) {
+    return forPublicRead().tagged(tag, options);
+  }
+
+  public List<Post> tagged(final String tag) {
+    return tagged(tag, null);
+  }
+
+  /**
+   * Get the information of a blog, through the client with the most budget left
+   *
+   * @param blogName
+   *          the name of the blog
+   *
+   * @return the blog
+   */
+  public Blog blogInfo(final String blogName) {
+    return forPublicRead().blogInfo(blogName);
+  }
+
+  /**
+   * Get the public posts of a blog, through the client with the most budget left
+   *
+   * @param blogName
+   *          the name of the blog
+   * @param options
+   *          the options for the call (or null)
+   *
+   * @return a List of posts
+   */
+  public List<Post> blogPosts(final String blogName, final Map<String, ?> options) {
+    return forPublicRead().blogPosts(blogName, options);
+  }
+
+  public List<Post> blogPosts(final String blogName) {
+    return blogPosts(blogName, null);
+  }
+
+  private static int budget(final RateLimits limits) {
+    int budget = Integer.MAX_VALUE;
+    if (limits.getPerhourLimit() > 0) {
+      budget = Math.min(budget, limits.getPerhourRemaining());
+    }
+    if (limits.getPerdayLimit() > 0) {
+      budget = Math.min(budget, limits.getPerdayRemaining());
+    }
+    return budget;
+  }
+
+  private static String blogKey(final String blogName) {
+    return blogName.contains(".") ? blogName : blogName + ".tumblr.com";
+  }
+
+}
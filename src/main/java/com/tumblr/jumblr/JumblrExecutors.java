@@ -0,0 +1,81 @@
+package com.tumblr.jumblr;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors used to run client calls off the calling thread
+ */
+public final class JumblrExecutors {
+
+  private JumblrExecutors() {
+  }
+
+  /**
+   * Create the default executor: one virtual thread per task when the JVM supports it, a cached pool of daemon threads
+   * otherwise
+   *
+   * @return a new executor
+   */
+  public static ExecutorService newDefaultExecutor() {
+    final ExecutorService virtual = newVirtualThreadExecutor();
+    return virtual != null ? virtual : Executors.newCachedThreadPool(new DaemonThreadFactory());
+  }
+
+  /**
+   * Create an executor starting a virtual thread per task
+   *
+   * @return the executor, or null if virtual threads are not available on this JVM
+   */
+  public static ExecutorService newVirtualThreadExecutor() {
+    try {
+      final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (final NoSuchMethodException e) {
+      return null; // before Java 21
+    } catch (final IllegalAccessException e) {
+      return null;
+    } catch (final InvocationTargetException e) {
+      return null; // preview feature not enabled
+    }
+  }
+
+  /**
+   * Wait for a future, rethrowing the failure of the call as is rather than wrapped in a CompletionException
+   *
+   * @param future
+   *          the future to wait for
+   *
+   * @return its value
+   */
+  static <T> T join(final CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (final CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw e;
+    }
+  }
+
+  private static class DaemonThreadFactory implements ThreadFactory {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(final Runnable runnable) {
+      final Thread thread = new Thread(runnable, "jumblr-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+
+  }
+
+}
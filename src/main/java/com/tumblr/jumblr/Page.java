@@ -0,0 +1,152 @@
+package com.tumblr.jumblr;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.tumblr.jumblr.types.Link;
+import com.tumblr.jumblr.types.Links;
+
+/**
+ * One page of a paginated call (notes, notifications, dashboard, likes), able to fetch the page after it by following
+ * the _links.next of the response. The options of the first call are carried over; the cursor comes from the link.
+ *
+ * @param <T>
+ *          the type of the items
+ */
+public class Page<T> implements Iterable<T> {
+
+  /** Options the next link replaces rather than adds to */
+  private static final Set<String> CURSORS = new HashSet<String>(
+      Arrays.asList("offset", "before", "before_timestamp", "after", "page", "since_id"));
+
+  private final List<T> items;
+  private final Link nextLink;
+  private final Map<String, ?> options;
+  private final Function<Map<String, ?>, Page<T>> fetcher;
+
+  /**
+   * @param items
+   *          the items of this page (or null)
+   * @param links
+   *          the _links of the response (or null)
+   * @param options
+   *          the options this page was fetched with (or null)
+   * @param fetcher
+   *          makes the same call with other options
+   */
+  Page(final List<T> items, final Links links, final Map<String, ?> options,
+      final Function<Map<String, ?>, Page<T>> fetcher) {
+    this.items = items == null ? Collections.<T> emptyList() : items;
+    nextLink = links == null ? null : links.getNext();
+    this.options = options;
+    this.fetcher = fetcher;
+  }
+
+  /**
+   * @return the items of this page
+   */
+  public List<T> getItems() {
+    return items;
+  }
+
+  /**
+   * @return whether the response pointed to a next page
+   */
+  public boolean hasNext() {
+    return nextLink != null && !items.isEmpty();
+  }
+
+  /**
+   * Fetch the next page
+   *
+   * @return the next page
+   *
+   * @throws NoSuchElementException
+   *           if this is the last page
+   */
+  public Page<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    final Map<String, Object> nextOptions = new HashMap<String, Object>();
+    if (options != null) {
+      for (final Map.Entry<String, ?> option : options.entrySet()) {
+        if (!CURSORS.contains(option.getKey())) {
+          nextOptions.put(option.getKey(), option.getValue());
+        }
+      }
+    }
+    nextOptions.putAll(nextLink.getHrefParameters());
+    return fetcher.apply(nextOptions);
+  }
+
+  /**
+   * @return an Iterator over the items of this page only
+   */
+  @Override
+  public Iterator<T> iterator() {
+    return items.iterator();
+  }
+
+  /**
+   * Iterate over the items of this page and of all the pages after it, fetching them as the iterator advances. Only
+   * one page is held at a time.
+   *
+   * @return an Iterator over all the items
+   */
+  public Iterator<T> iterateAll() {
+    return new Iterator<T>() {
+
+      private Page<T> page = Page.this;
+      private Iterator<T> current = items.iterator();
+
+      @Override
+      public boolean hasNext() {
+        while (!current.hasNext()) {
+          if (!page.hasNext()) {
+            return false;
+          }
+          page = page.next();
+          current = page.iterator();
+        }
+        return true;
+      }
+
+      @Override
+      public T next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return current.next();
+      }
+
+      @Override
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+
+    };
+  }
+
+  /**
+   * Stream the items of this page and of all the pages after it, as {@link #iterateAll()} does
+   *
+   * @return a sequential Stream of all the items
+   */
+  public Stream<T> streamAll() {
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterateAll(), Spliterator.ORDERED), false);
+  }
+
+}
@@ -0,0 +1,92 @@
+package com.tumblr.jumblr;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+
+import com.tumblr.jumblr.types.Post;
+
+/**
+ * Iterates over the posts of a blog one page (of up to 20 posts) at a time, paging by offset. While a page is being
+ * consumed the next one is already being fetched on the client's executor.
+ *
+ * Posts published while iterating shift the offsets, so the same post may come up twice around a page boundary.
+ */
+class PostIterator implements Iterator<Post> {
+
+  static final int MAX_PAGE_SIZE = 20;
+
+  private final JumblrClient client;
+  private final String blogName;
+  private final Map<String, Object> options;
+  private final int pageSize;
+  private final long maxPosts;
+
+  private long offset;
+  private long returned;
+  private List<Post> page = Collections.emptyList();
+  private int index;
+  private boolean lastPage;
+  private CompletableFuture<List<Post>> nextPage;
+
+  PostIterator(final JumblrClient client, final String blogName, final Map<String, ?> options, final long maxPosts) {
+    this.client = client;
+    this.blogName = blogName;
+    this.options = options == null ? new HashMap<String, Object>() : new HashMap<String, Object>(options);
+    this.maxPosts = maxPosts;
+    offset = intOption(this.options.remove("offset"), 0);
+    pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, intOption(this.options.remove("limit"), MAX_PAGE_SIZE)));
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (maxPosts > 0 && returned >= maxPosts) {
+      return false;
+    }
+    if (index < page.size()) {
+      return true;
+    }
+    if (lastPage) {
+      return false;
+    }
+    page = JumblrExecutors.join(nextPage != null ? nextPage : fetch());
+    index = 0;
+    nextPage = null;
+    lastPage = page.size() < pageSize || (maxPosts > 0 && returned + page.size() >= maxPosts);
+    if (!lastPage) {
+      nextPage = fetch();
+    }
+    return !page.isEmpty();
+  }
+
+  @Override
+  public Post next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    returned++;
+    return page.get(index++);
+  }
+
+  @Override
+  public void remove() {
+    throw new UnsupportedOperationException();
+  }
+
+  private CompletableFuture<List<Post>> fetch() {
+    final Map<String, Object> pageOptions = new HashMap<String, Object>(options);
+    pageOptions.put("offset", offset);
+    pageOptions.put("limit", pageSize);
+    offset += pageSize;
+    return CompletableFuture.supplyAsync(() -> client.blogPosts(blogName, pageOptions), client.getExecutor());
+  }
+
+  private static int intOption(final Object value, final int defaultValue) {
+    return value == null ? defaultValue : Integer.parseInt(value.toString());
+  }
+
+}
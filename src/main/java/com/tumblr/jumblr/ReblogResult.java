@@ -0,0 +1,60 @@
+package com.tumblr.jumblr;
+
+import com.tumblr.jumblr.types.Post;
+
+/**
+ * The outcome of reblogging one post with {@link JumblrClient#postReblogs(String, java.util.Collection, java.util.Map)}
+ */
+public class ReblogResult {
+
+  private final Post source;
+  private final Long id;
+  private final Post reblog;
+  private final RuntimeException error;
+
+  ReblogResult(final Post source, final Long id, final Post reblog, final RuntimeException error) {
+    this.source = source;
+    this.id = id;
+    this.reblog = reblog;
+    this.error = error;
+  }
+
+  /**
+   * @return the post that was reblogged
+   */
+  public Post getSource() {
+    return source;
+  }
+
+  /**
+   * @return the id of the reblog, or null if reblogging failed
+   */
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * @return the reblog, or null if reblogging failed or the reblog could not be fetched afterwards (the reblog exists
+   *         all the same when {@link #getId()} is set)
+   */
+  public Post getReblog() {
+    return reblog;
+  }
+
+  /**
+   * @return why the post could not be reblogged (a JumblrException...), or null
+   */
+  public RuntimeException getError() {
+    return error;
+  }
+
+  public boolean isSuccess() {
+    return error == null;
+  }
+
+  @Override
+  public String toString() {
+    return isSuccess() ? "[reblogged " + source + " as " + id + "]" : "[failed " + source + ": " + error + "]";
+  }
+
+}
@@ -0,0 +1,193 @@
+package com.tumblr.jumblr;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the results of calls that rarely change (user info, blog info, avatars) for a while, so repeated calls do not
+ * go to the network. Entries expire after a time to live set per endpoint; past the maximum size the least recently
+ * used entry is evicted. The client drops the entries its own writes make stale (following a blog, editing or deleting
+ * a post...).
+ *
+ * Cached objects are shared between callers: treat them as read-only.
+ */
+public class ResponseCache {
+
+  /**
+   * The calls that can be cached
+   */
+  public enum Endpoint {
+    USER, BLOG_INFO, BLOG_AVATAR
+  }
+
+  private final int maxEntries;
+  private final Map<Endpoint, Long> ttlNanos = new EnumMap<Endpoint, Long>(Endpoint.class);
+  private final LinkedHashMap<String, Entry> entries;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+
+  /** Bumped by every invalidation, so that a load started before one does not store what it invalidated */
+  private long generation;
+
+  public ResponseCache() {
+    this(1000);
+  }
+
+  /**
+   * @param maxEntries
+   *          how many results to keep at most, all endpoints together
+   */
+  public ResponseCache(final int maxEntries) {
+    this.maxEntries = Math.max(1, maxEntries);
+    entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+        if (size() > ResponseCache.this.maxEntries) {
+          evictions.incrementAndGet();
+          return true;
+        }
+        return false;
+      }
+    };
+    setTtl(Endpoint.USER, 1, TimeUnit.MINUTES);
+    setTtl(Endpoint.BLOG_INFO, 5, TimeUnit.MINUTES);
+    setTtl(Endpoint.BLOG_AVATAR, 1, TimeUnit.HOURS);
+  }
+
+  /**
+   * Set how long the results of an endpoint are kept (by default 1 minute for the user, 5 for blog info and an hour for
+   * avatars)
+   *
+   * @param endpoint
+   *          the endpoint
+   * @param ttl
+   *          the time to live, 0 not to cache the endpoint
+   * @param unit
+   *          the unit of ttl
+   */
+  public synchronized void setTtl(final Endpoint endpoint, final long ttl, final TimeUnit unit) {
+    ttlNanos.put(endpoint, unit.toNanos(ttl));
+  }
+
+  /**
+   * Get a cached result, or load and cache it
+   *
+   * @param endpoint
+   *          the endpoint called
+   * @param key
+   *          what identifies the call within the endpoint (blog name...)
+   * @param loader
+   *          makes the call on a miss
+   * @param <T>
+   *          the type of the result
+   *
+   * @return the result
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T get(final Endpoint endpoint, final String key, final Supplier<T> loader) {
+    final String cacheKey = cacheKey(endpoint, key);
+    final long ttl;
+    final long loadGeneration;
+    synchronized (this) {
+      ttl = ttlNanos.get(endpoint);
+      loadGeneration = generation;
+      final Entry entry = entries.get(cacheKey);
+      if (entry != null) {
+        if (System.nanoTime() - entry.expiresAt < 0) {
+          hits.incrementAndGet();
+          return (T) entry.value;
+        }
+        entries.remove(cacheKey);
+      }
+    }
+    misses.incrementAndGet();
+    // loaded outside the lock, concurrent misses on a same key may both call
+    final T value = loader.get();
+    if (ttl > 0 && value != null) {
+      synchronized (this) {
+        if (generation == loadGeneration) {
+          entries.put(cacheKey, new Entry(value, System.nanoTime() + ttl));
+        }
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Drop a cached result
+   *
+   * @param endpoint
+   *          the endpoint
+   * @param key
+   *          what identifies the call within the endpoint, null for all the results of the endpoint
+   */
+  public synchronized void invalidate(final Endpoint endpoint, final String key) {
+    generation++;
+    if (key != null) {
+      entries.remove(cacheKey(endpoint, key));
+      return;
+    }
+    final String prefix = endpoint.name() + ":";
+    for (final Iterator<String> keys = entries.keySet().iterator(); keys.hasNext();) {
+      if (keys.next().startsWith(prefix)) {
+        keys.remove();
+      }
+    }
+  }
+
+  public synchronized void invalidateAll() {
+    generation++;
+    entries.clear();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  /**
+   * @return how many calls were answered from the cache
+   */
+  public long getHitCount() {
+    return hits.get();
+  }
+
+  /**
+   * @return how many calls had to be made
+   */
+  public long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * @return how many results were dropped to make room
+   */
+  public long getEvictionCount() {
+    return evictions.get();
+  }
+
+  private static String cacheKey(final Endpoint endpoint, final String key) {
+    return endpoint.name() + ":" + key;
+  }
+
+  private static class Entry {
+
+    private final Object value;
+    private final long expiresAt;
+
+    Entry(final Object value, final long expiresAt) {
+      this.value = value;
+      this.expiresAt = expiresAt;
+    }
+
+  }
+
+}
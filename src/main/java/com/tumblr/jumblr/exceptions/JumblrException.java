@@ -1,9 +1,12 @@
 package com.tumblr.jumblr.exceptions;
 
 import com.google.gson.*;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.tumblr.jumblr.request.TransportResponse;
 import com.tumblr.jumblr.types.JumblrError;
 import org.scribe.model.Response;
 
@@ -16,9 +19,15 @@ import org.scribe.model.Response;
 public class JumblrException extends RuntimeException {
 	private static final long serialVersionUID = 1L;
 	
+	/** How much of a body that is not JSON ends up in the message */
+	private static final int MAX_MESSAGE_LENGTH = 1024;
+	/** The largest body parsed for a JSON error envelope */
+	private static final int MAX_PARSED_LENGTH = 64 * 1024;
+
 	private final int responseCode;
     private String message;
     private List<JumblrError> errors;
+    private String retryAfter;
 
     /**
      * Instantiate a new JumblrException given a bad response to wrap
@@ -26,8 +35,43 @@ public class JumblrException extends RuntimeException {
      */
     public JumblrException(Response response) {
         this.responseCode = response.getCode();
-        String body = response.getBody();
+        String body = response.getBody() == null ? "" : response.getBody();
+        if (!this.parse(new StringReader(body))) {
+            this.message = body.length() <= MAX_MESSAGE_LENGTH ? body : body.substring(0, MAX_MESSAGE_LENGTH);
+        }
+    }
+
+    /**
+     * Instantiate a new JumblrException given a bad response to wrap
+     * @param response the response to wrap
+     */
+    public JumblrException(TransportResponse response) {
+        this.responseCode = response.getCode();
+        this.retryAfter = response.getHeader("Retry-After");
+        // an error envelope is small, a larger body is a page of some kind: keep its start only
+        if (response.getBodyLength() > MAX_PARSED_LENGTH || !this.parse(response.openBody())) {
+            this.message = response.getBodyPrefix(MAX_MESSAGE_LENGTH);
+        }
+    }
 
+    /**
+     * Instantiate a new JumblrException for a response that could not be decoded
+     * @param responseCode the HTTP response code
+     * @param message what went wrong
+     * @param cause the decoding error
+     */
+    public JumblrException(int responseCode, String message, Throwable cause) {
+        super(cause);
+        this.responseCode = responseCode;
+        this.message = message;
+    }
+
+    /**
+     * Pull the message and errors out of a JSON body
+     * @param body the response body
+     * @return whether the body was a JSON object, if not the message is left to the caller
+     */
+    private boolean parse(Reader body) {
         JsonParser parser = new JsonParser();
         try {
             final JsonElement element = parser.parse(body);
@@ -35,12 +79,12 @@ public class JumblrException extends RuntimeException {
                 JsonObject object = element.getAsJsonObject();
                 this.extractMessage(object);
                 this.extractErrors(object);
-            } else {
-                this.message = body;
+                return true;
             }
         } catch (JsonParseException ex) {
-            this.message = body;
+            // not JSON, an HTML error page for instance
         }
+        return false;
     }
 
     /**
@@ -60,6 +104,14 @@ public class JumblrException extends RuntimeException {
         return this.message;
     }
 
+    /**
+     * Get how long the API asked to wait before trying again, sent with 429 and 503 responses
+     * @return the Retry-After header, in seconds or as an HTTP date (or null if none)
+     */
+    public String getRetryAfter() {
+        return this.retryAfter;
+    }
+
     /**
      * Get the errors returned from the API
      * @return the errors (or null if none)
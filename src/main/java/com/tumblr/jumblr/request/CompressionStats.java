@@ -0,0 +1,79 @@
+package com.tumblr.jumblr.request;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts what response compression saves: the bytes received on the wire against the bytes they decode to
+ */
+public class CompressionStats {
+
+  private final AtomicLong responses = new AtomicLong();
+  private final AtomicLong compressedResponses = new AtomicLong();
+  private final AtomicLong wireBytes = new AtomicLong();
+  private final AtomicLong decodedBytes = new AtomicLong();
+  private final AtomicLong compressedWireBytes = new AtomicLong();
+  private final AtomicLong compressedDecodedBytes = new AtomicLong();
+
+  /**
+   * @return how many response bodies were read
+   */
+  public long getResponseCount() {
+    return responses.get();
+  }
+
+  /**
+   * @return how many of them came compressed
+   */
+  public long getCompressedResponseCount() {
+    return compressedResponses.get();
+  }
+
+  /**
+   * @return the body bytes received, as sent on the wire
+   */
+  public long getWireBytes() {
+    return wireBytes.get();
+  }
+
+  /**
+   * @return the body bytes once decompressed
+   */
+  public long getDecodedBytes() {
+    return decodedBytes.get();
+  }
+
+  /**
+   * @return how many bytes compression spared the wire
+   */
+  public long getSavedBytes() {
+    return decodedBytes.get() - wireBytes.get();
+  }
+
+  void record(final boolean compressed, final long wire, final long decoded) {
+    responses.incrementAndGet();
+    if (compressed) {
+      compressedResponses.incrementAndGet();
+      compressedWireBytes.addAndGet(wire);
+      compressedDecodedBytes.addAndGet(decoded);
+    }
+    wireBytes.addAndGet(wire);
+    decodedBytes.addAndGet(decoded);
+  }
+
+  /**
+   * Guess how large a compressed body decodes to, from the ratio seen so far
+   *
+   * @param wire
+   *          the compressed length
+   *
+   * @return the expected decoded length
+   */
+  long estimateDecoded(final long wire) {
+    final long seenWire = compressedWireBytes.get();
+    // JSON compresses about 5 to 10 times, go with 8 until something has been seen
+    final double ratio = seenWire == 0 ? 8 : compressedDecodedBytes.get() / (double) seenWire;
+    // with some headroom, growing the buffer would copy it all
+    return (long) (wire * ratio * 1.1);
+  }
+
+}
@@ -0,0 +1,126 @@
+package com.tumblr.jumblr.request;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Decompresses response bodies sent with a Content-Encoding of gzip or deflate
+ */
+final class ContentDecoding {
+
+  static final String ACCEPT_ENCODING = "gzip, deflate";
+
+  private ContentDecoding() {
+  }
+
+  /**
+   * @param encoding
+   *          the Content-Encoding of the response (or null)
+   *
+   * @return whether {@link #decode} can decompress it
+   */
+  static boolean isSupported(final String encoding) {
+    return "gzip".equalsIgnoreCase(encoding) || "x-gzip".equalsIgnoreCase(encoding)
+        || "deflate".equalsIgnoreCase(encoding);
+  }
+
+  /**
+   * Decompress a body as it is read
+   *
+   * @param encoding
+   *          a supported Content-Encoding
+   * @param body
+   *          the body as received
+   *
+   * @return the decompressed body
+   *
+   * @throws IOException
+   *           if the body does not start as the encoding says
+   */
+  static InputStream decode(final String encoding, final InputStream body) throws IOException {
+    if (!"deflate".equalsIgnoreCase(encoding)) {
+      return new GZIPInputStream(body, 8192);
+    }
+    // "deflate" is meant to be zlib-wrapped, but some servers send the raw stream
+    final BufferedInputStream buffered = new BufferedInputStream(body, 8192);
+    buffered.mark(2);
+    final int cmf = buffered.read();
+    final int flg = buffered.read();
+    buffered.reset();
+    final boolean zlib = cmf >= 0 && flg >= 0 && (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    return new InflaterInputStream(buffered, new Inflater(!zlib), 8192) {
+      @Override
+      public void close() throws IOException {
+        super.close();
+        inf.end();
+      }
+    };
+  }
+
+  /**
+   * Collects a decoded body, handing over its buffer as is rather than a trimmed copy
+   */
+  static class Output extends ByteArrayOutputStream {
+
+    Output(final int capacity) {
+      super(capacity);
+    }
+
+    /**
+     * @return the buffer, holding the body in its first {@link #size()} bytes
+     */
+    byte[] buffer() {
+      return buf;
+    }
+
+  }
+
+  /**
+   * Counts the bytes read through it
+   */
+  static class CountingInputStream extends FilterInputStream {
+
+    private long count;
+
+    CountingInputStream(final InputStream in) {
+      super(in);
+    }
+
+    long getCount() {
+      return count;
+    }
+
+    @Override
+    public int read() throws IOException {
+      final int b = super.read();
+      if (b >= 0) {
+        count++;
+      }
+      return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+      final int read = super.read(b, off, len);
+      if (read > 0) {
+        count += read;
+      }
+      return read;
+    }
+
+    @Override
+    public long skip(final long n) throws IOException {
+      final long skipped = super.skip(n);
+      count += skipped;
+      return skipped;
+    }
+
+  }
+
+}
@@ -0,0 +1,128 @@
+package com.tumblr.jumblr.request;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.AbstractMap;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.scribe.exceptions.OAuthSignatureException;
+import org.scribe.services.SignatureService;
+import org.scribe.utils.OAuthEncoder;
+import org.scribe.utils.Preconditions;
+
+/**
+ * HMAC-SHA1 signatures, as scribe's HMACSha1SignatureService makes them, without its per-request setup: the key
+ * derived from a consumer secret and token secret is kept, and Macs are borrowed from a small pool, only initialized
+ * again when they sign for another key. The pool rather than one Mac per thread, since calls made through
+ * {@link com.tumblr.jumblr.AsyncJumblrClient} may each run on a new virtual thread.
+ */
+public class HmacSha1Signer implements SignatureService {
+
+  private static final String HMAC_SHA1 = "HmacSHA1";
+  private static final String METHOD = "HMAC-SHA1";
+  // past this many (consumer, token) pairs the keys are derived again from scratch
+  private static final int MAX_KEYS = 1024;
+  // Macs returned while this many are idle are dropped
+  private static final int MAX_IDLE_MACS = 64;
+
+  private static final HmacSha1Signer INSTANCE = new HmacSha1Signer();
+
+  private final Map<Map.Entry<String, String>, SecretKeySpec> keys =
+      new ConcurrentHashMap<Map.Entry<String, String>, SecretKeySpec>();
+  private final Queue<PooledMac> macs = new ConcurrentLinkedQueue<PooledMac>();
+  private final AtomicInteger idleMacs = new AtomicInteger();
+
+  /**
+   * @return the signer shared by every RequestBuilder
+   */
+  public static HmacSha1Signer getInstance() {
+    return INSTANCE;
+  }
+
+  @Override
+  public String getSignature(final String baseString, final String apiSecret, final String tokenSecret) {
+    try {
+      Preconditions.checkEmptyString(baseString, "Base string cant be null or empty string");
+      Preconditions.checkEmptyString(apiSecret, "Api secret cant be null or empty string");
+      final PooledMac mac = borrow();
+      final byte[] signature = mac.init(key(apiSecret, tokenSecret))
+          .doFinal(baseString.getBytes(StandardCharsets.UTF_8));
+      release(mac);
+      return Base64.getEncoder().encodeToString(signature);
+    } catch (final GeneralSecurityException e) {
+      throw new OAuthSignatureException(baseString, e);
+    } catch (final IllegalArgumentException e) {
+      throw new OAuthSignatureException(baseString, e);
+    }
+  }
+
+  @Override
+  public String getSignatureMethod() {
+    return METHOD;
+  }
+
+  /* package-visible for testing */ int getIdleMacs() {
+    return idleMacs.get();
+  }
+
+  private PooledMac borrow() {
+    final PooledMac mac = macs.poll();
+    if (mac == null) {
+      return new PooledMac();
+    }
+    idleMacs.decrementAndGet();
+    return mac;
+  }
+
+  private void release(final PooledMac mac) {
+    if (idleMacs.incrementAndGet() <= MAX_IDLE_MACS) {
+      macs.offer(mac);
+    } else {
+      idleMacs.decrementAndGet();
+    }
+  }
+
+  private SecretKeySpec key(final String apiSecret, final String tokenSecret) {
+    final Map.Entry<String, String> pair = new AbstractMap.SimpleImmutableEntry<String, String>(apiSecret, tokenSecret);
+    SecretKeySpec key = keys.get(pair);
+    if (key == null) {
+      if (keys.size() >= MAX_KEYS) {
+        keys.clear();
+      }
+      final String keyString = OAuthEncoder.encode(apiSecret) + '&' + OAuthEncoder.encode(tokenSecret);
+      key = new SecretKeySpec(keyString.getBytes(StandardCharsets.UTF_8), HMAC_SHA1);
+      keys.put(pair, key);
+    }
+    return key;
+  }
+
+  /**
+   * A pooled Mac, and the key it was last initialized with
+   */
+  private static class PooledMac {
+
+    private Mac mac;
+    private SecretKeySpec key;
+
+    Mac init(final SecretKeySpec key) throws GeneralSecurityException {
+      if (mac == null) {
+        mac = Mac.getInstance(HMAC_SHA1);
+      }
+      if (this.key != key) {
+        mac.init(key);
+        this.key = key;
+      }
+      return mac;
+    }
+
+  }
+
+}
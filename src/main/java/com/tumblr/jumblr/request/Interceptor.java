@@ -0,0 +1,67 @@
+package com.tumblr.jumblr.request;
+
+import java.io.IOException;
+
+/**
+ * Sees the calls of a RequestBuilder on their way to the transport, in the manner of OkHttp's interceptors: each one
+ * gets the request through its {@link Chain}, can change it, passes it on with {@link Chain#proceed} (or not, or more
+ * than once) and can change the response on its way back.
+ *
+ * A call goes through, in order: the interceptors added with {@link RequestBuilder#addInterceptor}, once per call; the
+ * retry policy and the rate limiter, when set; the defaults (User-Agent, timeout); then, once per attempt, the
+ * interceptors added with {@link RequestBuilder#addNetworkInterceptor} and the transport. Retried attempts keep the
+ * headers and timeout the interceptors added with addInterceptor set on the first one.
+ */
+public interface Interceptor {
+
+  /**
+   * @param chain
+   *          the request, and the way to the next interceptor
+   *
+   * @return the response
+   *
+   * @throws IOException
+   *           if the call could not be made
+   */
+  TransportResponse intercept(Chain chain) throws IOException;
+
+  /**
+   * Where an interceptor stands in the chain of a call
+   */
+  interface Chain {
+
+    /**
+     * @return the request as it stands
+     */
+    TransportRequest request();
+
+    /**
+     * @return the API path of the call, such as /blog/staff.tumblr.com/posts (null for XAuth)
+     */
+    String path();
+
+    /**
+     * Build and sign the request of the call again, with a fresh nonce and timestamp, for another attempt. The headers
+     * and timeout of {@link #request()} that the signed request does not set itself are carried over, so what the
+     * interceptors before this one did holds for every attempt.
+     *
+     * @return the new request
+     */
+    TransportRequest newRequest();
+
+    /**
+     * Pass a request on to the rest of the chain
+     *
+     * @param request
+     *          the request
+     *
+     * @return the response
+     *
+     * @throws IOException
+     *           if the call could not be made
+     */
+    TransportResponse proceed(TransportRequest request) throws IOException;
+
+  }
+
+}
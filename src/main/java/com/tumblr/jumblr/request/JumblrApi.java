@@ -0,0 +1,16 @@
+package com.tumblr.jumblr.request;
+
+import org.scribe.builder.api.TumblrApi;
+import org.scribe.services.SignatureService;
+
+/**
+ * The Tumblr API, signing with the shared {@link HmacSha1Signer}
+ */
+public class JumblrApi extends TumblrApi {
+
+  @Override
+  public SignatureService getSignatureService() {
+    return HmacSha1Signer.getInstance();
+  }
+
+}
@@ -0,0 +1,132 @@
+package com.tumblr.jumblr.request;
+
+/**
+ * Turns request events into meters, named and tagged the way Micrometer names HTTP client meters, and hands them to a
+ * {@link MeterSink}. Bridging to a Micrometer MeterRegistry (or any other metrics library) only takes implementing
+ * the sink:
+ *
+ * <pre>
+ * new MetricsRequestListener(new MetricsRequestListener.MeterSink() {
+ *   public void timer(String name, long nanos, String... tags) {
+ *     Timer.builder(name).tags(tags).register(registry).record(nanos, TimeUnit.NANOSECONDS);
+ *   }
+ *
+ *   public void summary(String name, long amount, String... tags) {
+ *     DistributionSummary.builder(name).tags(tags).register(registry).record(amount);
+ *   }
+ *
+ *   public void counter(String name, long amount, String... tags) {
+ *     registry.counter(name, tags).increment(amount);
+ *   }
+ * });
+ * </pre>
+ *
+ * Meters, all tagged with the method and the path template as uri:
+ * <ul>
+ * <li>jumblr.client.requests: a timer per attempt, also tagged with the status and the outcome</li>
+ * <li>jumblr.client.request.size, jumblr.client.response.size: summaries of the body sizes</li>
+ * <li>jumblr.client.decode: a timer of response decoding</li>
+ * <li>jumblr.client.retries: a counter of attempts after the first</li>
+ * <li>jumblr.client.errors: a counter of failed calls, also tagged with the exception</li>
+ * <li>jumblr.client.coalesced: a counter of GETs that shared the response of an identical one</li>
+ * </ul>
+ */
+public class MetricsRequestListener implements RequestListener {
+
+  private final MeterSink sink;
+
+  /**
+   * @param sink
+   *          where meters are recorded
+   */
+  public MetricsRequestListener(final MeterSink sink) {
+    this.sink = sink;
+  }
+
+  @Override
+  public void requestSigned(final RequestEvent event) {
+    if (event.getRetryCount() > 0) {
+      sink.counter("jumblr.client.retries", 1, tags(event));
+    }
+    sink.summary("jumblr.client.request.size", event.getRequestBytes(), tags(event));
+  }
+
+  @Override
+  public void responseReceived(final RequestEvent event) {
+    final int status = event.getStatus();
+    sink.timer("jumblr.client.requests", event.getAttemptNanos(), "method", event.getVerb().name(), "uri",
+        event.getPathTemplate(), "status", String.valueOf(status), "outcome", outcome(status));
+    sink.summary("jumblr.client.response.size", event.getResponseBytes(), tags(event));
+  }
+
+  @Override
+  public void requestCoalesced(final RequestEvent event) {
+    sink.counter("jumblr.client.coalesced", 1, tags(event));
+  }
+
+  @Override
+  public void responseDecoded(final RequestEvent event) {
+    sink.timer("jumblr.client.decode", event.getDecodeNanos(), tags(event));
+  }
+
+  @Override
+  public void requestFailed(final RequestEvent event, final RuntimeException error) {
+    sink.counter("jumblr.client.errors", 1, "method", event.getVerb().name(), "uri", event.getPathTemplate(),
+        "exception", error.getClass().getSimpleName());
+  }
+
+  private static String[] tags(final RequestEvent event) {
+    return new String[] { "method", event.getVerb().name(), "uri", event.getPathTemplate() };
+  }
+
+  private static String outcome(final int status) {
+    if (status >= 500) {
+      return "SERVER_ERROR";
+    }
+    if (status >= 400) {
+      return "CLIENT_ERROR";
+    }
+    if (status >= 300) {
+      return "REDIRECTION";
+    }
+    return status >= 200 ? "SUCCESS" : "UNKNOWN";
+  }
+
+  /**
+   * Records meters, given as a name, a value and tags as alternating keys and values
+   */
+  public interface MeterSink {
+
+    /**
+     * @param name
+     *          the timer name
+     * @param nanos
+     *          the duration to record
+     * @param tags
+     *          alternating tag keys and values
+     */
+    void timer(String name, long nanos, String... tags);
+
+    /**
+     * @param name
+     *          the distribution summary name
+     * @param amount
+     *          the amount to record
+     * @param tags
+     *          alternating tag keys and values
+     */
+    void summary(String name, long amount, String... tags);
+
+    /**
+     * @param name
+     *          the counter name
+     * @param amount
+     *          the amount to add
+     * @param tags
+     *          alternating tag keys and values
+     */
+    void counter(String name, long amount, String... tags);
+
+  }
+
+}
@@ -1,11 +1,15 @@
 package com.tumblr.jumblr.request;
 
-import java.io.BufferedInputStream;
-import java.io.DataInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -20,8 +24,8 @@ public class MultipartConverter {
     private String boundary;
     private OAuthRequest originalRequest;
 
-    private Integer bodyLength = 0;
-    private List<byte[]> responsePieces;
+    private long bodyLength = 0;
+    private List<Object> responsePieces;
 
     public MultipartConverter(OAuthRequest request, Map<String, ?> bodyMap) throws IOException {
         this.originalRequest = request;
@@ -29,30 +33,83 @@ public class MultipartConverter {
         this.computeBody(bodyMap);
     }
 
+    /**
+     * Get the multi-part request for scribe; the files are read into memory, see {@link #getTransportRequest()} to
+     * stream them instead
+     * @return the request, with the multi-part body as its payload
+     */
     public OAuthRequest getRequest() {
         OAuthRequest request = new OAuthRequest(originalRequest.getVerb(), originalRequest.getUrl());
         request.addHeader("Authorization", originalRequest.getHeaders().get("Authorization"));
-        request.addHeader("Content-Type", "multipart/form-data, boundary=" + boundary);
-        request.addHeader("Content-length", bodyLength.toString());
+        request.addHeader("Content-Type", getContentType());
+        request.addHeader("Content-length", Long.toString(bodyLength));
         request.addPayload(complexPayload());
         return request;
     }
 
+    /**
+     * Get the multi-part request for a Transport. Files are not read here, they are streamed from disk as the request
+     * is sent, so uploads take the same memory whatever their size.
+     * @return the request, with the original headers and the multi-part body
+     */
+    public TransportRequest getTransportRequest() {
+        TransportRequest request = new TransportRequest(originalRequest.getVerb(), originalRequest.getCompleteUrl());
+        for (Map.Entry<String, String> header : originalRequest.getHeaders().entrySet()) {
+            request.addHeader(header.getKey(), header.getValue());
+        }
+        request.setBody(getContentType(), getBody());
+        return request;
+    }
+
+    public String getContentType() {
+        return "multipart/form-data, boundary=" + boundary;
+    }
+
+    /**
+     * Get the multi-part body
+     * @return the body, writing the files straight from disk
+     */
+    public StreamingBody getBody() {
+        return new StreamingBody() {
+            @Override
+            public long contentLength() {
+                return bodyLength;
+            }
+
+            @Override
+            public void writeTo(WritableByteChannel target) throws IOException {
+                for (Object piece : responsePieces) {
+                    if (piece instanceof FilePiece) {
+                        ((FilePiece) piece).transferTo(target);
+                    } else {
+                        ByteBuffer buffer = ByteBuffer.wrap((byte[]) piece);
+                        while (buffer.hasRemaining()) {
+                            target.write(buffer);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+
     private byte[] complexPayload() {
-        int used = 0;
-        byte[] payload = new byte[bodyLength];
-        byte[] local;
-        for (Object piece : responsePieces) {  
-            local = (byte[]) piece;
-            System.arraycopy(local, 0, payload, used, local.length);
-            used += local.length;
+        if (bodyLength > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Multi-part body too large to hold in memory: " + bodyLength + " bytes");
         }
-        return payload;
+        ByteArrayOutputStream payload = new ByteArrayOutputStream((int) bodyLength);
+        try {
+            getBody().writeTo(Channels.newChannel(payload));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read the files to upload", e);
+        }
+        return payload.toByteArray();
     }
 
-    private void addResponsePiece(byte[] arr) {
-        responsePieces.add(arr);
-        bodyLength += arr.length;
+    private void addResponsePiece(File file) {
+        FilePiece piece = new FilePiece(file);
+        responsePieces.add(piece);
+        bodyLength += piece.length;
     }
 
     private void addResponsePiece(StringBuilder builder) {
@@ -62,7 +119,7 @@ public class MultipartConverter {
     }
 
     private void computeBody(Map<String, ?> bodyMap) throws IOException {
-        responsePieces = new ArrayList<byte[]>();
+        responsePieces = new ArrayList<Object>();
 
         StringBuilder message = new StringBuilder();
         message.append("Content-Type: multipart/form-data; boundary=").append(boundary).append("\r\n\r\n");
@@ -72,24 +129,16 @@ public class MultipartConverter {
             if (object == null) { continue; }
             if (object instanceof File) {
                 File f = (File) object;
-                String mime = URLConnection.guessContentTypeFromName(f.getName());
-
-                byte[] result = new byte[(int)f.length()];
-                
-                DataInputStream dis = new DataInputStream(new BufferedInputStream(new FileInputStream(f)));
-                try {
-                    dis.readFully(result);
-                } finally {
-                    if (dis != null) {
-                        dis.close();
-                    }
+                if (!f.isFile() || !f.canRead()) {
+                    throw new FileNotFoundException(f.getPath());
                 }
+                String mime = URLConnection.guessContentTypeFromName(f.getName());
 
                 message.append("--").append(boundary).append("\r\n");
                 message.append("Content-Disposition: form-data; name=\"").append(key).append("\"; filename=\"").append(f.getName()).append("\"\r\n");
                 message.append("Content-Type: ").append(mime).append("\r\n\r\n");
                 this.addResponsePiece(message);
-                this.addResponsePiece(result);
+                this.addResponsePiece(f);
                 message = new StringBuilder("\r\n");
             } else {
                 message.append("--").append(boundary).append("\r\n");
@@ -102,4 +151,40 @@ public class MultipartConverter {
         this.addResponsePiece(message);
     }
 
+    /**
+     * A file to upload, with the length announced for it in the Content-Length
+     */
+    private static class FilePiece {
+
+        private final File file;
+        private final long length;
+
+        FilePiece(File file) {
+            this.file = file;
+            this.length = file.length();
+        }
+
+        void transferTo(WritableByteChannel target) throws IOException {
+            FileInputStream in = new FileInputStream(file);
+            try {
+                // lets the OS copy from the page cache where it can, through a small buffer otherwise
+                FileChannel channel = in.getChannel();
+                long position = 0;
+                while (position < length) {
+                    long sent = channel.transferTo(position, length - position, target);
+                    if (sent <= 0) {
+                        break;
+                    }
+                    position += sent;
+                }
+                if (position != length || channel.size() != length) {
+                    throw new IOException("File changed while uploading: " + file);
+                }
+            } finally {
+                in.close();
+            }
+        }
+
+    }
+
 }
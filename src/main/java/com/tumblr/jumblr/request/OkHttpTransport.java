@@ -0,0 +1,378 @@
+package com.tumblr.jumblr.request;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Headers;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSink;
+
+/**
+ * The default Transport, backed by an OkHttp client: connections are kept alive and pooled, idle ones are evicted after
+ * a while, and HTTP/2 is negotiated where the server and JVM support it. Responses are asked for gzip or deflate
+ * compressed and decompressed as they are read, see {@link #getCompressionStats()} for what it saves.
+ *
+ * Transports are meant to be shared; {@link #getDefault()} is the one every RequestBuilder starts with.
+ */
+public class OkHttpTransport implements Transport {
+
+  private static volatile OkHttpTransport defaultTransport;
+
+  private static final int MAX_INITIAL_CAPACITY = 16 << 20;
+  private static final int MAX_ERROR_BODY = 64 * 1024;
+  private static final ThreadLocal<byte[]> COPY_BUFFER = ThreadLocal.withInitial(() -> new byte[8192]);
+
+  private final OkHttpClient client;
+  private final int maxConnectionsPerHost;
+  private final boolean compression;
+  private final CompressionStats compressionStats = new CompressionStats();
+  private final ConcurrentMap<Integer, OkHttpClient> derivedClients = new ConcurrentHashMap<Integer, OkHttpClient>();
+  private final ConcurrentMap<String, Semaphore> hostPermits = new ConcurrentHashMap<String, Semaphore>();
+
+  public OkHttpTransport() {
+    this(new Builder());
+  }
+
+  private OkHttpTransport(final Builder builder) {
+    final OkHttpClient.Builder clientBuilder = builder.client != null ? builder.client.newBuilder()
+        : new OkHttpClient.Builder();
+    clientBuilder.connectionPool(
+        new ConnectionPool(builder.maxIdleConnections, builder.keepAliveMillis, TimeUnit.MILLISECONDS));
+    clientBuilder.protocols(builder.http2 ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+        : Collections.singletonList(Protocol.HTTP_1_1));
+    client = clientBuilder.build();
+    maxConnectionsPerHost = builder.maxConnectionsPerHost;
+    compression = builder.compression;
+  }
+
+  /**
+   * Get the transport shared by every RequestBuilder that was not given its own
+   *
+   * @return the default transport
+   */
+  public static OkHttpTransport getDefault() {
+    OkHttpTransport result = defaultTransport;
+    if (result == null) {
+      synchronized (OkHttpTransport.class) {
+        result = defaultTransport;
+        if (result == null) {
+          result = new OkHttpTransport();
+          defaultTransport = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Get the connection pool, for instance to look at its connection counts
+   *
+   * @return the pool
+   */
+  public ConnectionPool getConnectionPool() {
+    return client.connectionPool();
+  }
+
+  /**
+   * @return the bytes received and what they decompressed to, for the responses this transport asked compressed
+   */
+  public CompressionStats getCompressionStats() {
+    return compressionStats;
+  }
+
+  @Override
+  public TransportResponse execute(final TransportRequest request) throws IOException {
+    final Request.Builder builder = new Request.Builder().url(request.getUrl());
+    boolean negotiate = compression;
+    for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      if (!"Content-Length".equalsIgnoreCase(header.getKey())) {
+        builder.header(header.getKey(), header.getValue());
+      }
+      if ("Accept-Encoding".equalsIgnoreCase(header.getKey())) {
+        // whoever set it decodes the body
+        negotiate = false;
+      }
+    }
+    if (negotiate) {
+      // asking explicitly turns off OkHttp's own gzip handling, so the body is decoded (and counted) here
+      builder.header("Accept-Encoding", ContentDecoding.ACCEPT_ENCODING);
+    }
+    RequestBody body = null;
+    if (request.getBody() != null) {
+      // OkHttp would rewrite (or reject) some of the content types we send, so pass it through as is
+      builder.header("Content-Type", request.getContentType());
+      body = RequestBody.create(null, request.getBody());
+    } else if (request.getStreamingBody() != null) {
+      builder.header("Content-Type", request.getContentType());
+      body = new StreamingRequestBody(request.getStreamingBody());
+    }
+    builder.method(request.getVerb().name(), body);
+    final Request okRequest = builder.build();
+
+    final Semaphore permits = permits(okRequest.url().host());
+    if (permits != null) {
+      acquire(permits);
+    }
+    try {
+      final Response response = clientFor(request.getTimeoutSeconds(), request.isFollowRedirects()).newCall(okRequest)
+          .execute();
+      try {
+        final ResponseBody responseBody = response.body();
+        final Map<String, String> headers = headers(response.headers());
+        final String encoding = negotiate ? response.header("Content-Encoding") : null;
+        if (responseBody == null) {
+          return new TransportResponse(response.code(), headers, "");
+        }
+        final MediaType contentType = responseBody.contentType();
+        final Charset charset = contentType == null ? StandardCharsets.UTF_8
+            : contentType.charset(StandardCharsets.UTF_8);
+        return read(response.code(), headers, responseBody, encoding, charset);
+      } finally {
+        response.close();
+      }
+    } finally {
+      if (permits != null) {
+        permits.release();
+      }
+    }
+  }
+
+  /**
+   * Read the body as bytes: decoding it to a String would take twice the memory, the codec reads it as a stream
+   * instead. A compressed body is inflated into a buffer sized from its compressed length and handed over without a
+   * copy. Only the start of an error body is read, it is there for the error message.
+   */
+  private TransportResponse read(final int code, final Map<String, String> headers, final ResponseBody body,
+      final String encoding, final Charset charset) throws IOException {
+    final int limit = code >= 400 ? MAX_ERROR_BODY : Integer.MAX_VALUE;
+    if (!ContentDecoding.isSupported(encoding)) {
+      if (limit == Integer.MAX_VALUE) {
+        final byte[] bytes = body.bytes();
+        compressionStats.record(false, bytes.length, bytes.length);
+        return new TransportResponse(code, headers, bytes, charset);
+      }
+      final ContentDecoding.Output prefix = new ContentDecoding.Output(8192);
+      copy(body.byteStream(), prefix, limit);
+      compressionStats.record(false, prefix.size(), prefix.size());
+      return new TransportResponse(code, headers, prefix.buffer(), prefix.size(), charset);
+    }
+    final ContentDecoding.CountingInputStream wire = new ContentDecoding.CountingInputStream(body.byteStream());
+    final BufferedInputStream buffered = new BufferedInputStream(wire, 8192);
+    buffered.mark(1);
+    final boolean empty = buffered.read() < 0;
+    buffered.reset();
+    final long wireLength = body.contentLength();
+    final ContentDecoding.Output decoded = new ContentDecoding.Output(wireLength > 0
+        ? (int) Math.min(Math.min(compressionStats.estimateDecoded(wireLength), MAX_INITIAL_CAPACITY), limit) : 8192);
+    if (!empty) {
+      try (InputStream in = ContentDecoding.decode(encoding, buffered)) {
+        copy(in, decoded, limit);
+      }
+    }
+    compressionStats.record(true, wire.getCount(), decoded.size());
+    // the headers now describe the body as decoded
+    headers.keySet()
+        .removeIf(name -> "Content-Encoding".equalsIgnoreCase(name) || "Content-Length".equalsIgnoreCase(name));
+    return new TransportResponse(code, headers, decoded.buffer(), decoded.size(), charset);
+  }
+
+  private static void copy(final InputStream in, final ContentDecoding.Output out, final int limit)
+      throws IOException {
+    final byte[] buffer = COPY_BUFFER.get();
+    int read;
+    while (out.size() < limit && (read = in.read(buffer, 0, Math.min(buffer.length, limit - out.size()))) != -1) {
+      out.write(buffer, 0, read);
+    }
+  }
+
+  private OkHttpClient clientFor(final int timeoutSeconds, final boolean followRedirects) {
+    final Integer key = timeoutSeconds * 2 + (followRedirects ? 1 : 0);
+    OkHttpClient result = derivedClients.get(key);
+    if (result == null) {
+      // derived clients share the connection pool and dispatcher, redirect settings are per client rather than global
+      // 0 is no timeout, for OkHttp as for the requests: a long upload must not be cut off while it is processed
+      result = client.newBuilder().connectTimeout(timeoutSeconds, TimeUnit.SECONDS)
+          .readTimeout(timeoutSeconds, TimeUnit.SECONDS).writeTimeout(timeoutSeconds, TimeUnit.SECONDS)
+          .followRedirects(followRedirects).followSslRedirects(followRedirects).build();
+      final OkHttpClient existing = derivedClients.putIfAbsent(key, result);
+      if (existing != null) {
+        result = existing;
+      }
+    }
+    return result;
+  }
+
+  private Semaphore permits(final String host) {
+    if (maxConnectionsPerHost <= 0) {
+      return null;
+    }
+    Semaphore result = hostPermits.get(host);
+    if (result == null) {
+      result = new Semaphore(maxConnectionsPerHost, true);
+      final Semaphore existing = hostPermits.putIfAbsent(host, result);
+      if (existing != null) {
+        result = existing;
+      }
+    }
+    return result;
+  }
+
+  private static void acquire(final Semaphore permits) throws IOException {
+    try {
+      permits.acquire();
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for a connection", e);
+    }
+  }
+
+  private static Map<String, String> headers(final Headers headers) {
+    final Map<String, String> result = new HashMap<String, String>();
+    for (final String name : headers.names()) {
+      result.put(name, headers.get(name));
+    }
+    return result;
+  }
+
+  /**
+   * Writes a StreamingBody to the connection as OkHttp sends the request
+   */
+  private static class StreamingRequestBody extends RequestBody {
+
+    private final StreamingBody body;
+
+    StreamingRequestBody(final StreamingBody body) {
+      this.body = body;
+    }
+
+    @Override
+    public MediaType contentType() {
+      return null; // set as a header, see execute
+    }
+
+    @Override
+    public long contentLength() {
+      return body.contentLength();
+    }
+
+    @Override
+    public void writeTo(final BufferedSink sink) throws IOException {
+      body.writeTo(sink);
+    }
+
+  }
+
+  /**
+   * Configuration for an OkHttpTransport
+   */
+  public static class Builder {
+
+    private OkHttpClient client;
+    private int maxConnectionsPerHost;
+    private int maxIdleConnections = 5;
+    private long keepAliveMillis = TimeUnit.MINUTES.toMillis(5);
+    private boolean http2 = true;
+    private boolean compression = true;
+
+    /**
+     * Start from an existing OkHttp client (its interceptors, proxy, TLS settings...). Its timeouts are not used: each
+     * request has its own, 0 meaning none
+     *
+     * @param client
+     *          the client to derive from
+     *
+     * @return this builder
+     */
+    public Builder client(final OkHttpClient client) {
+      this.client = client;
+      return this;
+    }
+
+    /**
+     * Limit how many requests can be in flight to the same host at once; further ones wait for a free slot
+     *
+     * @param maxConnectionsPerHost
+     *          the limit, 0 (the default) for none
+     *
+     * @return this builder
+     */
+    public Builder maxConnectionsPerHost(final int maxConnectionsPerHost) {
+      this.maxConnectionsPerHost = maxConnectionsPerHost;
+      return this;
+    }
+
+    /**
+     * @param maxIdleConnections
+     *          how many idle connections to keep in the pool (default 5)
+     *
+     * @return this builder
+     */
+    public Builder maxIdleConnections(final int maxIdleConnections) {
+      this.maxIdleConnections = maxIdleConnections;
+      return this;
+    }
+
+    /**
+     * @param duration
+     *          how long an idle connection is kept before being evicted (default 5 minutes)
+     * @param unit
+     *          the unit of duration
+     *
+     * @return this builder
+     */
+    public Builder keepAlive(final long duration, final TimeUnit unit) {
+      keepAliveMillis = unit.toMillis(duration);
+      return this;
+    }
+
+    /**
+     * @param http2
+     *          whether to negotiate HTTP/2 when available (default true)
+     *
+     * @return this builder
+     */
+    public Builder http2(final boolean http2) {
+      this.http2 = http2;
+      return this;
+    }
+
+    /**
+     * @param compression
+     *          whether to ask for gzip or deflate compressed responses and count what it saves (default true)
+     *
+     * @return this builder
+     */
+    public Builder compression(final boolean compression) {
+      this.compression = compression;
+      return this;
+    }
+
+    public OkHttpTransport build() {
+      return new OkHttpTransport(this);
+    }
+
+  }
+
+}
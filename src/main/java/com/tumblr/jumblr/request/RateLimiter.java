@@ -0,0 +1,294 @@
+package com.tumblr.jumblr.request;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tumblr.jumblr.types.Limit;
+
+/**
+ * Client-side token bucket pacing calls so the remaining budget lasts until it resets, instead of running into 429s.
+ *
+ * The bucket refills at remaining / seconds-until-reset, taken from the X-Ratelimit headers of every response (the
+ * stricter of the hourly and daily windows), and holds at most a small burst. Until the first headers arrive calls go
+ * through unpaced. Write actions (posts, follows, likes) also draw from their own buckets once seeded from
+ * {@link com.tumblr.jumblr.JumblrClient#userLimits()}.
+ *
+ * Callers wait outside any lock, so a slow caller does not hold up the bookkeeping for others.
+ *
+ * As an {@link Interceptor}, it waits for the budget before each attempt and updates it from each response.
+ */
+public class RateLimiter implements Interceptor {
+
+  private final int burst;
+  private final Clock clock;
+  private final Bucket global;
+  private final ConcurrentMap<String, Bucket> actions = new ConcurrentHashMap<String, Bucket>();
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final AtomicLong delayedCount = new AtomicLong();
+  private final AtomicLong delayedNanos = new AtomicLong();
+
+  public RateLimiter() {
+    this(10);
+  }
+
+  /**
+   * @param burst
+   *          how many calls can go out back to back when the budget allows it
+   */
+  public RateLimiter(final int burst) {
+    this(burst, Clock.SYSTEM);
+  }
+
+  /* package-visible for testing */ RateLimiter(final int burst, final Clock clock) {
+    this.burst = Math.max(1, burst);
+    this.clock = clock;
+    global = new Bucket(this.burst, clock);
+  }
+
+  @Override
+  public TransportResponse intercept(final Chain chain) throws IOException {
+    acquire(chain.path());
+    final TransportResponse response = chain.proceed(chain.request());
+    update(new RateLimits(response.getHeaders()));
+    return response;
+  }
+
+  /**
+   * Re-seed the bucket from the rate limit headers of a response; limits without headers are ignored
+   *
+   * @param limits
+   *          the limits of the last response
+   */
+  public void update(final RateLimits limits) {
+    double rate = Double.NaN;
+    double remaining = Double.NaN;
+    if (limits.getPerhourLimit() > 0) {
+      rate = perSecond(limits.getPerhourRemaining(), limits.getPerhourReset());
+      remaining = limits.getPerhourRemaining();
+    }
+    if (limits.getPerdayLimit() > 0) {
+      final double daily = perSecond(limits.getPerdayRemaining(), limits.getPerdayReset());
+      if (Double.isNaN(rate) || daily < rate) {
+        rate = daily;
+      }
+      remaining = Double.isNaN(remaining) ? limits.getPerdayRemaining()
+          : Math.min(remaining, limits.getPerdayRemaining());
+    }
+    if (!Double.isNaN(rate)) {
+      global.seed(rate, remaining);
+    }
+  }
+
+  /**
+   * Seed the per-action buckets from the user limits
+   *
+   * @param limits
+   *          the limits by action, as returned by {@link com.tumblr.jumblr.JumblrClient#userLimits()}
+   */
+  public void update(final Map<String, Limit> limits) {
+    final long now = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis());
+    for (final Map.Entry<String, Limit> entry : limits.entrySet()) {
+      final Limit limit = entry.getValue();
+      if (limit == null || limit.getLimit() <= 0) {
+        continue;
+      }
+      final long reset = limit.getReset_at() == null ? 0 : limit.getReset_at() - now;
+      Bucket bucket = actions.get(entry.getKey());
+      if (bucket == null) {
+        bucket = new Bucket(burst, clock);
+        final Bucket existing = actions.putIfAbsent(entry.getKey(), bucket);
+        if (existing != null) {
+          bucket = existing;
+        }
+      }
+      bucket.seed(perSecond(limit.getRemaining(), reset), limit.getRemaining());
+    }
+  }
+
+  /**
+   * Wait until a call to the given path is allowed
+   *
+   * @param path
+   *          the API path of the call
+   *
+   * @throws InterruptedIOException
+   *           if interrupted while waiting
+   */
+  public void acquire(final String path) throws InterruptedIOException {
+    long waitNanos = global.reserve();
+    final String action = actionFor(path);
+    final Bucket bucket = action == null ? null : actions.get(action);
+    if (bucket != null) {
+      waitNanos = Math.max(waitNanos, bucket.reserve());
+    }
+    if (waitNanos <= 0) {
+      return;
+    }
+    delayedCount.incrementAndGet();
+    delayedNanos.addAndGet(waitNanos);
+    waiting.incrementAndGet();
+    try {
+      clock.sleep(waitNanos);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for the rate limit");
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+
+  /**
+   * @return the calls that can go out right now without waiting, negative when calls are queued for the budget
+   */
+  public double getAvailable() {
+    return global.available();
+  }
+
+  /**
+   * @param action
+   *          the action, as named in the user limits (posts, follows, likes...)
+   *
+   * @return the calls of this action that can go out right now, or NaN when it is not limited
+   */
+  public double getAvailable(final String action) {
+    final Bucket bucket = actions.get(action);
+    return bucket == null ? Double.NaN : bucket.available();
+  }
+
+  /**
+   * @return the calls per second the budget is spread at, or NaN before the first headers
+   */
+  public double getRate() {
+    return global.rate();
+  }
+
+  /**
+   * @return the number of calls currently waiting
+   */
+  public int getWaiting() {
+    return waiting.get();
+  }
+
+  /**
+   * @return how many calls had to wait so far
+   */
+  public long getDelayedCount() {
+    return delayedCount.get();
+  }
+
+  /**
+   * @param unit
+   *          the unit of the result
+   *
+   * @return the total time calls spent waiting so far
+   */
+  public long getDelayedTime(final TimeUnit unit) {
+    return unit.convert(delayedNanos.get(), TimeUnit.NANOSECONDS);
+  }
+
+  /* package-visible for testing */ static String actionFor(final String path) {
+    if (path == null) {
+      return null;
+    }
+    if (path.endsWith("/post") || path.endsWith("/post/reblog")) {
+      return "posts";
+    }
+    if (path.equals("/user/follow")) {
+      return "follows";
+    }
+    if (path.equals("/user/like")) {
+      return "likes";
+    }
+    return null;
+  }
+
+  private static double perSecond(final int remaining, final long resetSeconds) {
+    // even with nothing left, let one call through per window so the limits get refreshed
+    return Math.max(remaining, 1) / (double) Math.max(resetSeconds, 1);
+  }
+
+  /**
+   * Where the buckets get the time from and callers wait, so that tests need not depend on the wall clock
+   */
+  interface Clock {
+
+    Clock SYSTEM = new Clock() {
+
+      @Override
+      public long nanoTime() {
+        return System.nanoTime();
+      }
+
+      @Override
+      public void sleep(final long nanos) throws InterruptedException {
+        TimeUnit.NANOSECONDS.sleep(nanos);
+      }
+
+    };
+
+    long nanoTime();
+
+    void sleep(long nanos) throws InterruptedException;
+
+  }
+
+  /**
+   * The token bucket itself. Reservations may take it below zero; the deficit is how long the next caller waits.
+   */
+  private static class Bucket {
+
+    private final int capacity;
+    private final Clock clock;
+    private double permits;
+    private double permitsPerNano = Double.NaN;
+    private long refilledAt;
+
+    Bucket(final int capacity, final Clock clock) {
+      this.capacity = capacity;
+      this.clock = clock;
+      permits = capacity;
+      refilledAt = clock.nanoTime();
+    }
+
+    synchronized void seed(final double perSecond, final double remaining) {
+      refill(clock.nanoTime());
+      permitsPerNano = perSecond / TimeUnit.SECONDS.toNanos(1);
+      permits = Math.min(permits, Math.max(remaining, 0));
+    }
+
+    synchronized long reserve() {
+      if (Double.isNaN(permitsPerNano)) {
+        return 0;
+      }
+      final long now = clock.nanoTime();
+      refill(now);
+      permits -= 1;
+      // rounded up, so that a caller never wakes before its permit is there
+      return permits >= 0 ? 0 : (long) Math.ceil(-permits / permitsPerNano);
+    }
+
+    synchronized double available() {
+      refill(clock.nanoTime());
+      return permits;
+    }
+
+    synchronized double rate() {
+      return permitsPerNano * TimeUnit.SECONDS.toNanos(1);
+    }
+
+    private void refill(final long now) {
+      if (!Double.isNaN(permitsPerNano)) {
+        permits = Math.min(capacity, permits + (now - refilledAt) * permitsPerNano);
+      }
+      refilledAt = now;
+    }
+
+  }
+
+}
@@ -4,8 +4,16 @@ import org.apache.commons.lang3.math.NumberUtils;
 
 import java.util.Map;
 
+/**
+ * The rate limits reported by the server. Instances are immutable; see {@link #merge(RateLimits)} for how the
+ * snapshots of concurrent responses are combined.
+ */
 public class RateLimits {
+  // responses observed this close to each other are taken to report on the same window
+  private static final long SAME_WINDOW_MILLIS = 2000;
+
   private final int perhourRemaining, perhourLimit, perhourReset, perdayRemaining, perdayLimit, perdayReset;
+  private final long observedAt;
 
   public RateLimits() {
     perhourRemaining = 0;
@@ -14,9 +22,15 @@ public class RateLimits {
     perdayRemaining = 0;
     perdayLimit = 0;
     perdayReset = 0;
+    observedAt = 0;
   }
 
   public RateLimits(final Map<String, String> response) {
+    this(response, System.currentTimeMillis());
+  }
+
+  /* package-visible for testing */ RateLimits(final Map<String, String> response, final long observedAt) {
+    this.observedAt = observedAt;
     perhourRemaining = NumberUtils.toInt(response.get("X-Ratelimit-Perhour-Remaining"));
     perhourLimit = NumberUtils.toInt(response.get("X-Ratelimit-Perhour-Limit"));
     perhourReset = NumberUtils.toInt(response.get("X-Ratelimit-Perhour-Reset"));
@@ -25,6 +39,72 @@ public class RateLimits {
     perdayReset = NumberUtils.toInt(response.get("X-Ratelimit-Perday-Reset"));
   }
 
+  private RateLimits(final long observedAt, final int perhourRemaining, final int perhourLimit, final int perhourReset,
+      final int perdayRemaining, final int perdayLimit, final int perdayReset) {
+    this.observedAt = observedAt;
+    this.perhourRemaining = perhourRemaining;
+    this.perhourLimit = perhourLimit;
+    this.perhourReset = perhourReset;
+    this.perdayRemaining = perdayRemaining;
+    this.perdayLimit = perdayLimit;
+    this.perdayReset = perdayReset;
+  }
+
+  /**
+   * Combine this snapshot with another one, such as those of two responses that completed in any order. Each window
+   * (hourly, daily) is taken from whichever snapshot has the freshest view of it: when both report on the same window
+   * the lowest remaining count wins, when one has seen the window reset its values win. A snapshot without rate limit
+   * headers changes nothing.
+   *
+   * @param other
+   *          the other snapshot
+   *
+   * @return the combined snapshot
+   */
+  public RateLimits merge(final RateLimits other) {
+    if (other == null || other.isEmpty()) {
+      return this;
+    }
+    if (isEmpty()) {
+      return other;
+    }
+    final long now = Math.max(observedAt, other.observedAt);
+    final boolean hourFromOther = prefer(other.perhourLimit, other.perhourRemaining, other.resetAt(other.perhourReset),
+        perhourLimit, perhourRemaining, resetAt(perhourReset));
+    final boolean dayFromOther = prefer(other.perdayLimit, other.perdayRemaining, other.resetAt(other.perdayReset),
+        perdayLimit, perdayRemaining, resetAt(perdayReset));
+    final RateLimits hour = hourFromOther ? other : this;
+    final RateLimits day = dayFromOther ? other : this;
+    return new RateLimits(now, hour.perhourRemaining, hour.perhourLimit, hour.secondsUntil(hour.perhourReset, now),
+        day.perdayRemaining, day.perdayLimit, day.secondsUntil(day.perdayReset, now));
+  }
+
+  private static boolean prefer(final int limit, final int remaining, final long resetAt, final int currentLimit,
+      final int currentRemaining, final long currentResetAt) {
+    if (limit == 0) {
+      return false;
+    }
+    if (currentLimit == 0) {
+      return true;
+    }
+    if (Math.abs(resetAt - currentResetAt) <= SAME_WINDOW_MILLIS) {
+      return remaining < currentRemaining;
+    }
+    return resetAt > currentResetAt;
+  }
+
+  private long resetAt(final int reset) {
+    return observedAt + reset * 1000L;
+  }
+
+  private int secondsUntil(final int reset, final long now) {
+    return (int) Math.max(0, (resetAt(reset) - now) / 1000);
+  }
+
+  private boolean isEmpty() {
+    return perhourLimit == 0 && perdayLimit == 0;
+  }
+
   /**
    * @return the perhourRemaining
    */
@@ -0,0 +1,70 @@
+package com.tumblr.jumblr.request;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * The chain of one call, at one interceptor. The last interceptor sends the request and never proceeds.
+ */
+class RealInterceptorChain implements Interceptor.Chain {
+
+  private final List<Interceptor> interceptors;
+  private final int index;
+  private final String path;
+  private final Supplier<TransportRequest> requests;
+  private final TransportRequest request;
+
+  RealInterceptorChain(final List<Interceptor> interceptors, final int index, final String path,
+      final Supplier<TransportRequest> requests, final TransportRequest request) {
+    this.interceptors = interceptors;
+    this.index = index;
+    this.path = path;
+    this.requests = requests;
+    this.request = request;
+  }
+
+  @Override
+  public TransportRequest request() {
+    return request;
+  }
+
+  @Override
+  public String path() {
+    return path;
+  }
+
+  @Override
+  public TransportRequest newRequest() {
+    final TransportRequest fresh = requests.get();
+    // keep what the interceptors before this one did: the headers they set (but not those the request is signed
+    // with, which come fresh) and the timeout
+    final Map<String, String> own = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+    own.putAll(fresh.getHeaders());
+    for (final Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+      if (!own.containsKey(header.getKey())) {
+        fresh.addHeader(header.getKey(), header.getValue());
+      }
+    }
+    if (request.getTimeoutSeconds() != 0) {
+      fresh.setTimeoutSeconds(request.getTimeoutSeconds());
+    }
+    return fresh;
+  }
+
+  @Override
+  public TransportResponse proceed(final TransportRequest request) throws IOException {
+    if (index >= interceptors.size()) {
+      throw new IllegalStateException("Nothing left to proceed to");
+    }
+    final TransportResponse response = interceptors.get(index)
+        .intercept(new RealInterceptorChain(interceptors, index + 1, path, requests, request));
+    if (response == null) {
+      throw new IllegalStateException("Interceptor " + interceptors.get(index) + " returned no response");
+    }
+    return response;
+  }
+
+}
@@ -2,28 +2,24 @@ package com.tumblr.jumblr.request;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.HttpURLConnection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonSyntaxException;
 import com.tumblr.jumblr.JumblrClient;
 import com.tumblr.jumblr.exceptions.JumblrException;
-import com.tumblr.jumblr.responses.AudioPostTypeAdapter;
-import com.tumblr.jumblr.responses.JsonElementDeserializer;
-import com.tumblr.jumblr.responses.PhotoTypeAdapter;
+import com.tumblr.jumblr.responses.ResponseCodec;
 import com.tumblr.jumblr.responses.ResponseWrapper;
-import com.tumblr.jumblr.responses.VideoPostTypeAdapter;
-import com.tumblr.jumblr.types.AudioPost;
-import com.tumblr.jumblr.types.Photo;
-import com.tumblr.jumblr.types.VideoPost;
 import org.scribe.builder.ServiceBuilder;
-import org.scribe.builder.api.TumblrApi;
+import org.scribe.exceptions.OAuthConnectionException;
 import org.scribe.model.OAuthRequest;
-import org.scribe.model.Response;
 import org.scribe.model.Token;
 import org.scribe.model.Verb;
 import org.scribe.oauth.OAuthService;
@@ -31,51 +27,107 @@ import org.scribe.oauth.OAuthService;
 /**
  * Where requests are made from
  *
+ * A RequestBuilder is safe to share between threads. Every call reads each setting once, so settings changed while
+ * calls are in flight apply to the calls made afterwards; the rate limits of concurrent responses are merged as
+ * described in {@link RateLimits#merge(RateLimits)}. Once {@link #freeze()} is called, as
+ * {@link JumblrClient.Builder} does, only the token can still be changed.
+ *
  * @author jc
  */
 public class RequestBuilder {
 
-  private Token token;
-  private OAuthService service;
-  private String hostname = "api.tumblr.com";
+  private volatile Token token;
+  private volatile OAuthService service;
+  private volatile String hostname = "api.tumblr.com";
   private final String xauthEndpoint = "https://www.tumblr.com/oauth/access_token";
   private final String version = "0.0.13";
   private final JumblrClient client;
-  private int timeoutSeconds;
-  private RateLimits rateLimits = new RateLimits();
+  private volatile int timeoutSeconds;
+  private final AtomicReference<RateLimits> rateLimits = new AtomicReference<RateLimits>(new RateLimits());
+  private volatile Transport transport = OkHttpTransport.getDefault();
+  private volatile ResponseCodec codec;
+  private volatile RateLimiter rateLimiter;
+  private volatile RetryPolicy retryPolicy;
+  private volatile ValidatorCache validatorCache;
+  private volatile SingleFlight singleFlight;
+  private volatile RequestListener requestListener;
+  private final List<Interceptor> interceptors = new CopyOnWriteArrayList<Interceptor>();
+  private final List<Interceptor> networkInterceptors = new CopyOnWriteArrayList<Interceptor>();
+  private final Interceptor defaults = this::addDefaults;
+  private volatile boolean frozen;
 
   public RequestBuilder(final JumblrClient client) {
     this.client = client;
+    codec = client == null ? new ResponseCodec() : client.getCodec();
+  }
+
+  /**
+   * Stop accepting changes to the configuration: from now on every setter but the token's throws
+   * IllegalStateException
+   */
+  public void freeze() {
+    frozen = true;
+  }
+
+  /**
+   * @return whether the configuration can no longer be changed
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  private void checkNotFrozen() {
+    if (frozen) {
+      throw new IllegalStateException("Configuration is frozen, set it up with JumblrClient.Builder instead");
+    }
   }
 
   public RateLimits getRateLimits() {
-    return rateLimits;
+    return rateLimits.get();
   }
 
   public String getRedirectUrl(final String path) {
-    final OAuthRequest request = constructGet(path, null);
-    sign(request);
-    final boolean presetVal = HttpURLConnection.getFollowRedirects();
-    HttpURLConnection.setFollowRedirects(false);
-    final Response response = request.send();
-    HttpURLConnection.setFollowRedirects(presetVal);
+    final RequestEvent event = begin(Verb.GET, path);
+    final TransportResponse response = send(path, event, () -> {
+      final OAuthRequest request = constructGet(path, null);
+      sign(request);
+      final TransportRequest transportRequest = TransportRequest.from(request);
+      transportRequest.setFollowRedirects(false);
+      return transportRequest;
+    });
     if (response.getCode() == 301 || response.getCode() == 302) {
       return response.getHeader("Location");
     }
-    throw new JumblrException(response);
+    throw failed(event, new JumblrException(response));
   }
 
   public ResponseWrapper postMultipart(final String path, final Map<String, ?> bodyMap) throws IOException {
     final OAuthRequest request = constructPost(path, bodyMap);
     sign(request);
-    final OAuthRequest newRequest = RequestBuilder.convertToMultipart(request, bodyMap);
-    return clear(newRequest.send());
+    final TransportRequest first = new MultipartConverter(request, bodyMap).getTransportRequest();
+    final AtomicBoolean sent = new AtomicBoolean();
+    final RequestEvent event = begin(Verb.POST, path);
+    return clear(send(path, event, () -> {
+      if (!sent.getAndSet(true)) {
+        return first;
+      }
+      final OAuthRequest retry = constructPost(path, bodyMap);
+      sign(retry);
+      try {
+        return new MultipartConverter(retry, bodyMap).getTransportRequest();
+      } catch (final IOException e) {
+        throw new OAuthConnectionException(e);
+      }
+    }), event);
   }
 
   public ResponseWrapper post(final String path, final Map<String, ?> bodyMap) {
-    final OAuthRequest request = constructPost(path, bodyMap);
-    sign(request);
-    return clear(request.send());
+    final RequestEvent event = begin(Verb.POST, path);
+    return clear(send(path, event, () -> {
+      final OAuthRequest request = constructPost(path, bodyMap);
+      sign(request);
+      return TransportRequest.from(request);
+    }), event);
   }
 
   /**
@@ -90,10 +142,18 @@ public class RequestBuilder {
    * @return the login token.
    */
   public Token postXAuth(final String email, final String password) {
-    final OAuthRequest request = constructXAuthPost(email, password);
     setToken("", ""); // Empty token is required for Scribe to execute XAuth.
-    sign(request);
-    return clearXAuth(request.send());
+    final RequestEvent event = begin(Verb.POST, null);
+    final TransportResponse response = send(null, event, () -> {
+      final OAuthRequest request = constructXAuthPost(email, password);
+      sign(request);
+      return TransportRequest.from(request);
+    });
+    try {
+      return clearXAuth(response);
+    } catch (final JumblrException e) {
+      throw failed(event, e);
+    }
   }
 
   // Construct an XAuth request
@@ -106,22 +166,74 @@ public class RequestBuilder {
   }
 
   public ResponseWrapper get(final String path, final Map<String, ?> map) {
-    final OAuthRequest request = constructGet(path, map);
-    sign(request);
-    return clear(request.send());
+    final SingleFlight flights = singleFlight;
+    final RequestEvent event = begin(Verb.GET, path);
+    if (flights != null && flights.accepts(path)) {
+      final Token signedWith = token;
+      final AtomicBoolean sent = new AtomicBoolean();
+      final ResponseWrapper response;
+      try {
+        response = flights.execute(SingleFlight.key(path, map, signedWith == null ? null : signedWith.getToken()),
+            () -> {
+              sent.set(true);
+              return fetch(path, map, event);
+            });
+      } catch (final RuntimeException e) {
+        throw sent.get() ? e : failed(event, e);
+      }
+      if (!sent.get() && event != null) {
+        event.coalesced();
+      }
+      return response;
+    }
+    return fetch(path, map, event);
+  }
+
+  private ResponseWrapper fetch(final String path, final Map<String, ?> map, final RequestEvent event) {
+    final ValidatorCache validators = validatorCache;
+    if (validators == null) {
+      return clear(send(path, event, () -> {
+        final OAuthRequest request = constructGet(path, map);
+        sign(request);
+        return TransportRequest.from(request);
+      }), event);
+    }
+
+    final Token signedWith = token;
+    final AtomicReference<String> key = new AtomicReference<String>();
+    final AtomicReference<ValidatorCache.Entry> previous = new AtomicReference<ValidatorCache.Entry>();
+    final TransportResponse response = send(path, event, () -> {
+      final OAuthRequest request = constructGet(path, map);
+      sign(request, signedWith);
+      final TransportRequest transportRequest = TransportRequest.from(request);
+      key.set((signedWith == null ? "" : signedWith.getToken()) + " " + transportRequest.getUrl());
+      final ValidatorCache.Entry entry = validators.lookup(key.get());
+      previous.set(entry);
+      if (entry != null) {
+        entry.addValidatorsTo(transportRequest);
+      }
+      return transportRequest;
+    });
+    if (response.getCode() == 304 && previous.get() != null) {
+      updateRateLimits(response);
+      return validators.notModified(previous.get());
+    }
+    final ResponseWrapper wrapper = clear(response, event);
+    validators.store(key.get(), response, wrapper);
+    return wrapper;
   }
 
   public OAuthRequest constructGet(final String path, final Map<String, ?> queryParams) {
     final String url = "https://" + hostname + "/v2" + path;
+    final int timeout = timeoutSeconds;
     final OAuthRequest request = new OAuthRequest(Verb.GET, url);
     if (queryParams != null) {
       for (final Map.Entry<String, ?> entry : queryParams.entrySet()) {
         request.addQuerystringParameter(entry.getKey(), entry.getValue().toString());
       }
     }
-    request.addHeader("User-Agent", "jumblr/" + version);
-    request.setConnectTimeout(timeoutSeconds, TimeUnit.SECONDS);
-    request.setReadTimeout(timeoutSeconds, TimeUnit.SECONDS);
+    request.setConnectTimeout(timeout, TimeUnit.SECONDS);
+    request.setReadTimeout(timeout, TimeUnit.SECONDS);
 
     return request;
   }
@@ -129,6 +241,7 @@ public class RequestBuilder {
   private OAuthRequest constructPost(final String path, final Map<String, ?> bodyMap) {
     final String url = "https://" + hostname + "/v2" + path;
     final OAuthRequest request = new OAuthRequest(Verb.POST, url);
+    final int timeout = timeoutSeconds;
 
     for (final Map.Entry<String, ?> entry : bodyMap.entrySet()) {
       final String key = entry.getKey();
@@ -138,15 +251,37 @@ public class RequestBuilder {
       }
       request.addBodyParameter(key, value.toString());
     }
-    request.addHeader("User-Agent", "jumblr/" + version);
-    request.setConnectTimeout(timeoutSeconds, TimeUnit.SECONDS);
-    request.setReadTimeout(timeoutSeconds, TimeUnit.SECONDS);
+    request.setConnectTimeout(timeout, TimeUnit.SECONDS);
+    request.setReadTimeout(timeout, TimeUnit.SECONDS);
 
     return request;
   }
 
   public void setConsumer(final String consumerKey, final String consumerSecret) {
-    service = new ServiceBuilder().provider(TumblrApi.class).apiKey(consumerKey).apiSecret(consumerSecret).build();
+    checkNotFrozen();
+    service = new ServiceBuilder().provider(JumblrApi.class).apiKey(consumerKey).apiSecret(consumerSecret).build();
+  }
+
+  public OAuthService getService() {
+    return service;
+  }
+
+  /**
+   * Sign with an existing service, such as one shared by the builders of several tokens of the same consumer
+   *
+   * @param service
+   *          the service requests are signed with
+   */
+  public void setService(final OAuthService service) {
+    checkNotFrozen();
+    this.service = service;
+  }
+
+  /**
+   * @return the token calls are signed with, null if none
+   */
+  public Token getToken() {
+    return token;
   }
 
   public void setToken(final String token, final String tokenSecret) {
@@ -158,32 +293,282 @@ public class RequestBuilder {
   }
 
   public void setTimeoutSeconds(final int timeoutSeconds) {
+    checkNotFrozen();
     this.timeoutSeconds = timeoutSeconds;
   }
 
-  /* package-visible for testing */ ResponseWrapper clear(final Response response) {
-    rateLimits = new RateLimits(response.getHeaders());
+  public ResponseCodec getCodec() {
+    return codec;
+  }
+
+  /**
+   * Set the codec used to decode responses
+   *
+   * @param codec
+   *          the codec, shared with every ResponseWrapper this builder returns
+   */
+  public void setCodec(final ResponseCodec codec) {
+    checkNotFrozen();
+    this.codec = codec;
+  }
+
+  public Transport getTransport() {
+    return transport;
+  }
+
+  /**
+   * Set the transport requests are sent with
+   *
+   * @param transport
+   *          the transport, by default the shared {@link OkHttpTransport#getDefault()}
+   */
+  public void setTransport(final Transport transport) {
+    checkNotFrozen();
+    this.transport = transport;
+  }
+
+  public RateLimiter getRateLimiter() {
+    return rateLimiter;
+  }
+
+  /**
+   * Pace calls with a rate limiter, fed with the rate limit headers of every response
+   *
+   * @param rateLimiter
+   *          the limiter, null (the default) for none
+   */
+  public void setRateLimiter(final RateLimiter rateLimiter) {
+    checkNotFrozen();
+    this.rateLimiter = rateLimiter;
+  }
+
+  public SingleFlight getSingleFlight() {
+    return singleFlight;
+  }
+
+  /**
+   * Let identical concurrent GETs share one call
+   *
+   * @param singleFlight
+   *          decides which GETs are shared, null (the default) for none
+   */
+  public void setSingleFlight(final SingleFlight singleFlight) {
+    checkNotFrozen();
+    this.singleFlight = singleFlight;
+  }
+
+  public ValidatorCache getValidatorCache() {
+    return validatorCache;
+  }
+
+  /**
+   * Send GETs conditionally, returning the previous response when the server says it has not changed
+   *
+   * @param validatorCache
+   *          where to keep validators and responses, null (the default) not to
+   */
+  public void setValidatorCache(final ValidatorCache validatorCache) {
+    checkNotFrozen();
+    this.validatorCache = validatorCache;
+  }
+
+  /**
+   * @return the interceptors added with {@link #addInterceptor(Interceptor)}, in order
+   */
+  public List<Interceptor> getInterceptors() {
+    return Collections.unmodifiableList(interceptors);
+  }
+
+  /**
+   * Add an interceptor that sees each call once, before it is retried or rate limited
+   *
+   * @param interceptor
+   *          the interceptor, run after those added before
+   */
+  public void addInterceptor(final Interceptor interceptor) {
+    checkNotFrozen();
+    interceptors.add(interceptor);
+  }
+
+  public void removeInterceptor(final Interceptor interceptor) {
+    checkNotFrozen();
+    interceptors.remove(interceptor);
+  }
+
+  /**
+   * @return the interceptors added with {@link #addNetworkInterceptor(Interceptor)}, in order
+   */
+  public List<Interceptor> getNetworkInterceptors() {
+    return Collections.unmodifiableList(networkInterceptors);
+  }
+
+  /**
+   * Add an interceptor that sees each attempt, right before it is sent
+   *
+   * @param interceptor
+   *          the interceptor, run after those added before
+   */
+  public void addNetworkInterceptor(final Interceptor interceptor) {
+    checkNotFrozen();
+    networkInterceptors.add(interceptor);
+  }
+
+  public void removeNetworkInterceptor(final Interceptor interceptor) {
+    checkNotFrozen();
+    networkInterceptors.remove(interceptor);
+  }
+
+  public RequestListener getRequestListener() {
+    return requestListener;
+  }
+
+  /**
+   * Tell a listener about every call, for metrics or tracing
+   *
+   * @param requestListener
+   *          the listener, null (the default) for none
+   */
+  public void setRequestListener(final RequestListener requestListener) {
+    checkNotFrozen();
+    this.requestListener = requestListener;
+  }
+
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  /**
+   * Retry failed calls according to a policy
+   *
+   * @param retryPolicy
+   *          the policy, null (the default) to never retry
+   */
+  public void setRetryPolicy(final RetryPolicy retryPolicy) {
+    checkNotFrozen();
+    this.retryPolicy = retryPolicy;
+  }
+
+  /**
+   * Send a call through the interceptors
+   *
+   * @param path
+   *          the API path of the call (null for XAuth)
+   * @param event
+   *          the call as told to the request listener, null if there is none
+   * @param requests
+   *          builds and signs the request, once per attempt so each gets a fresh nonce and timestamp
+   *
+   * @return the last response
+   */
+  private TransportResponse send(final String path, final RequestEvent event,
+      final Supplier<TransportRequest> requests) {
+    final List<Interceptor> chain = new ArrayList<Interceptor>(interceptors);
+    final RetryPolicy retry = retryPolicy;
+    if (retry != null) {
+      chain.add(retry);
+    }
+    final RateLimiter limiter = rateLimiter;
+    if (limiter != null) {
+      chain.add(limiter);
+    }
+    chain.add(defaults);
+    chain.addAll(networkInterceptors);
+    chain.add(network(event));
+    try {
+      final TransportRequest first = requests.get();
+      return new RealInterceptorChain(chain, 0, path, requests, first).proceed(first);
+    } catch (final IOException e) {
+      throw failed(event, new OAuthConnectionException(e));
+    } catch (final RuntimeException e) {
+      throw failed(event, e);
+    }
+  }
+
+  /**
+   * The end of the chain: send each attempt with the transport
+   */
+  private Interceptor network(final RequestEvent event) {
+    final Transport network = transport;
+    if (event == null) {
+      return chain -> network.execute(chain.request());
+    }
+    final AtomicInteger attempts = new AtomicInteger();
+    return chain -> {
+      event.signed(attempts.incrementAndGet(), chain.request());
+      final TransportResponse response = network.execute(chain.request());
+      event.received(response);
+      return response;
+    };
+  }
+
+  /**
+   * What every request gets unless an earlier interceptor decided otherwise
+   */
+  private TransportResponse addDefaults(final Interceptor.Chain chain) throws IOException {
+    final TransportRequest request = chain.request();
+    if (!request.getHeaders().containsKey("User-Agent")) {
+      request.addHeader("User-Agent", "jumblr/" + version);
+    }
+    if (request.getTimeoutSeconds() == 0) {
+      request.setTimeoutSeconds(timeoutSeconds);
+    }
+    return chain.proceed(request);
+  }
+
+  private void updateRateLimits(final TransportResponse response) {
+    final RateLimits observed = new RateLimits(response.getHeaders());
+    rateLimits.accumulateAndGet(observed, RateLimits::merge);
+  }
+
+  /* package-visible for testing */ ResponseWrapper clear(final TransportResponse response) {
+    return clear(response, null);
+  }
+
+  private ResponseWrapper clear(final TransportResponse response, final RequestEvent event) {
+    updateRateLimits(response);
     if (response.getCode() != 200 && response.getCode() != 201) {
-      throw new JumblrException(response);
+      throw failed(event, new JumblrException(response));
     }
-    final String json = response.getBody();
     try {
-      final Gson gson = new GsonBuilder().registerTypeAdapter(JsonElement.class, new JsonElementDeserializer())
-          .registerTypeAdapter(Photo.class, new PhotoTypeAdapter())
-          .registerTypeAdapter(VideoPost.class, new VideoPostTypeAdapter())
-          .registerTypeAdapter(AudioPost.class, new AudioPostTypeAdapter()).create();
-      final ResponseWrapper wrapper = gson.fromJson(json, ResponseWrapper.class);
+      // decode from the bytes as received, a String of the body would take twice the memory
+      final ResponseWrapper wrapper = ResponseWrapper.open(response::openBody, codec);
       if (wrapper == null) {
-        throw new JumblrException(response);
+        throw failed(event, new JumblrException(response));
       }
       wrapper.setClient(client);
+      wrapper.setResponseCode(response.getCode());
+      if (event != null) {
+        wrapper.setDecodeListener(event::decoded);
+      }
       return wrapper;
-    } catch (final JsonSyntaxException ex) {
-      throw new JumblrException(response);
+    } catch (final IOException ex) {
+      throw failed(event, new JumblrException(response));
+    }
+  }
+
+  /**
+   * Start telling the request listener about a call
+   *
+   * @return the call, null if there is no listener
+   */
+  private RequestEvent begin(final Verb verb, final String path) {
+    final RequestListener listener = requestListener;
+    if (listener == null) {
+      return null;
     }
+    final RequestEvent event = new RequestEvent(listener, verb, path);
+    event.start();
+    return event;
   }
 
-  private Token parseXAuthResponse(final Response response) {
+  private static RuntimeException failed(final RequestEvent event, final RuntimeException error) {
+    if (event != null) {
+      event.failed(error);
+    }
+    return error;
+  }
+
+  private Token parseXAuthResponse(final TransportResponse response) {
     final String responseStr = response.getBody();
     if (responseStr != null) {
       // Response is received in the format "oauth_token=value&oauth_token_secret=value".
@@ -207,7 +592,7 @@ public class RequestBuilder {
     throw new JumblrException(response);
   }
 
-  /* package-visible for testing */ Token clearXAuth(final Response response) {
+  /* package-visible for testing */ Token clearXAuth(final TransportResponse response) {
     if (response.getCode() == 200 || response.getCode() == 201) {
       return parseXAuthResponse(response);
     }
@@ -215,8 +600,12 @@ public class RequestBuilder {
   }
 
   private void sign(final OAuthRequest request) {
-    if (token != null) {
-      service.signRequest(token, request);
+    sign(request, token);
+  }
+
+  private void sign(final OAuthRequest request, final Token signWith) {
+    if (signWith != null) {
+      service.signRequest(signWith, request);
     }
   }
 
@@ -236,6 +625,7 @@ public class RequestBuilder {
    *          such as "api.tumblr.com"
    */
   public void setHostname(final String host) {
+    checkNotFrozen();
     hostname = host;
   }
 
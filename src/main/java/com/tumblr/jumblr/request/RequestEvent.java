@@ -0,0 +1,193 @@
+package com.tumblr.jumblr.request;
+
+import org.apache.commons.lang3.math.NumberUtils;
+import org.scribe.model.Verb;
+
+/**
+ * One API call, as seen by a {@link RequestListener}
+ */
+public class RequestEvent {
+
+  private final RequestListener listener;
+  private final Verb verb;
+  private final String path;
+  private final long startNanos;
+  private String pathTemplate;
+
+  private int attempt;
+  private long attemptStartNanos;
+  private long requestBytes = -1;
+  private int status = -1;
+  private long responseBytes = -1;
+  private long attemptNanos = -1;
+  private long decodeNanos = -1;
+  private boolean coalesced;
+
+  RequestEvent(final RequestListener listener, final Verb verb, final String path) {
+    this.listener = listener;
+    this.verb = verb;
+    this.path = path;
+    startNanos = System.nanoTime();
+  }
+
+  public Verb getVerb() {
+    return verb;
+  }
+
+  /**
+   * @return the API path, such as /blog/staff.tumblr.com/posts (null for XAuth)
+   */
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * @return the API path with its blog, ids and sizes replaced by placeholders, such as /blog/{blog}/posts, fit to
+   *         group calls by endpoint
+   */
+  public String getPathTemplate() {
+    if (pathTemplate == null) {
+      pathTemplate = template(path);
+    }
+    return pathTemplate;
+  }
+
+  /**
+   * @return the current attempt, 1 for the first one
+   */
+  public int getAttempt() {
+    return attempt;
+  }
+
+  /**
+   * @return how many times the call was retried so far
+   */
+  public int getRetryCount() {
+    return Math.max(0, attempt - 1);
+  }
+
+  /**
+   * @return the size of the request body of the current attempt, -1 before it is built
+   */
+  public long getRequestBytes() {
+    return requestBytes;
+  }
+
+  /**
+   * @return the HTTP status of the last response, -1 before there is one
+   */
+  public int getStatus() {
+    return status;
+  }
+
+  /**
+   * @return the size of the body of the last response, -1 before there is one
+   */
+  public long getResponseBytes() {
+    return responseBytes;
+  }
+
+  /**
+   * @return how long the current attempt took to get its response, -1 before there is one
+   */
+  public long getAttemptNanos() {
+    return attemptNanos;
+  }
+
+  /**
+   * @return how long since the call started, retries and their waits included
+   */
+  public long getElapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  /**
+   * @return how long decoding the response took, -1 before it is decoded
+   */
+  public long getDecodeNanos() {
+    return decodeNanos;
+  }
+
+  /**
+   * @return whether the call shared the response of an identical call in flight, see {@link SingleFlight}
+   */
+  public boolean isCoalesced() {
+    return coalesced;
+  }
+
+  void start() {
+    listener.requestStart(this);
+  }
+
+  void signed(final int attempt, final TransportRequest request) {
+    this.attempt = attempt;
+    if (request.getBody() != null) {
+      requestBytes = request.getBody().length;
+    } else if (request.getStreamingBody() != null) {
+      requestBytes = request.getStreamingBody().contentLength();
+    } else {
+      requestBytes = 0;
+    }
+    status = -1;
+    responseBytes = -1;
+    attemptNanos = -1;
+    attemptStartNanos = System.nanoTime();
+    listener.requestSigned(this);
+  }
+
+  void received(final TransportResponse response) {
+    attemptNanos = System.nanoTime() - attemptStartNanos;
+    status = response.getCode();
+    final long contentLength = NumberUtils.toLong(response.getHeader("Content-Length"), -1);
+    responseBytes = contentLength >= 0 ? contentLength : response.getBodyLength();
+    listener.responseReceived(this);
+  }
+
+  void decoded(final long nanos, final RuntimeException error) {
+    decodeNanos = nanos;
+    if (error == null) {
+      listener.responseDecoded(this);
+    } else {
+      listener.requestFailed(this, error);
+    }
+  }
+
+  void coalesced() {
+    coalesced = true;
+    listener.requestCoalesced(this);
+  }
+
+  void failed(final RuntimeException error) {
+    listener.requestFailed(this, error);
+  }
+
+  /**
+   * Replace the variable parts of an API path by placeholders: the blog following /blog/, an avatar size, and ids
+   *
+   * @param path
+   *          the API path (null for XAuth)
+   *
+   * @return the template
+   */
+  static String template(final String path) {
+    if (path == null) {
+      return "/oauth/access_token";
+    }
+    final String[] segments = path.split("/", -1);
+    final StringBuilder template = new StringBuilder(path.length());
+    for (int i = 1; i < segments.length; i++) {
+      final String previous = segments[i - 1];
+      final String segment = segments[i];
+      template.append('/');
+      if ("blog".equals(previous) && i == 2) {
+        template.append("{blog}");
+      } else if (!segment.isEmpty() && NumberUtils.isDigits(segment)) {
+        template.append("avatar".equals(previous) ? "{size}" : "{id}");
+      } else {
+        template.append(segment);
+      }
+    }
+    return template.toString();
+  }
+
+}
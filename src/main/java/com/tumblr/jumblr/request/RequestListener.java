@@ -0,0 +1,75 @@
+package com.tumblr.jumblr.request;
+
+/**
+ * Hears about every API call a RequestBuilder makes, for metrics or tracing. All the callbacks of a call get the same
+ * {@link RequestEvent}, updated as the call goes; they run on the calling thread and should return quickly and not
+ * throw.
+ *
+ * For each call: {@link #requestStart}, then for each attempt {@link #requestSigned} and {@link #responseReceived}
+ * (unless the connection failed), then {@link #responseDecoded} when the caller decodes the response. A call that
+ * ends with an error gets {@link #requestFailed} instead of the callbacks that would have followed.
+ *
+ * A GET that a {@link SingleFlight} let share the response of an identical call in flight gets
+ * {@link #requestCoalesced} (or {@link #requestFailed}) right after {@link #requestStart}: it made no attempt of its
+ * own. The shared response reports its decoding on the event of the call that went to the network, whichever caller
+ * decodes it.
+ */
+public interface RequestListener {
+
+  /**
+   * The call is about to be made
+   *
+   * @param event
+   *          the call
+   */
+  default void requestStart(final RequestEvent event) {
+  }
+
+  /**
+   * An attempt has been built and signed, and is about to be sent
+   *
+   * @param event
+   *          the call, with its attempt and request size
+   */
+  default void requestSigned(final RequestEvent event) {
+  }
+
+  /**
+   * The response of an attempt has been received
+   *
+   * @param event
+   *          the call, with its status and response size
+   */
+  default void responseReceived(final RequestEvent event) {
+  }
+
+  /**
+   * The call got the response of an identical call in flight instead of going to the network
+   *
+   * @param event
+   *          the call, without attempts
+   */
+  default void requestCoalesced(final RequestEvent event) {
+  }
+
+  /**
+   * The response has been decoded
+   *
+   * @param event
+   *          the call, with its decode time
+   */
+  default void responseDecoded(final RequestEvent event) {
+  }
+
+  /**
+   * The call failed: the connection failed, the server answered with an error, or the response could not be decoded
+   *
+   * @param event
+   *          the call, as far as it went
+   * @param error
+   *          the error thrown to the caller
+   */
+  default void requestFailed(final RequestEvent event, final RuntimeException error) {
+  }
+
+}
@@ -0,0 +1,280 @@
+package com.tumblr.jumblr.request;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.scribe.model.Verb;
+
+/**
+ * Decides whether a failed call is tried again, and after how long: exponential backoff with full jitter, or the
+ * server's Retry-After when it sends one.
+ *
+ * A 429 means the call was turned away before doing anything, so it is retried whatever the call. Other failures (5xx,
+ * connection errors) are only retried for calls that can safely run twice; creating or reblogging a post could
+ * otherwise publish it twice.
+ *
+ * As an {@link Interceptor}, each attempt after the first gets a newly built and signed request.
+ */
+public class RetryPolicy implements Interceptor {
+
+  private static final Set<Integer> RETRYABLE_CODES = Collections
+      .unmodifiableSet(new HashSet<Integer>(Arrays.asList(429, 500, 502, 503, 504)));
+
+  private final int maxAttempts;
+  private final long baseDelayMillis;
+  private final long maxDelayMillis;
+  private final boolean retryUnsafe;
+
+  private final AtomicLong retries = new AtomicLong();
+  private final AtomicLong exhausted = new AtomicLong();
+
+  public RetryPolicy() {
+    this(new Builder());
+  }
+
+  protected RetryPolicy(final Builder builder) {
+    maxAttempts = builder.maxAttempts;
+    baseDelayMillis = builder.baseDelayMillis;
+    maxDelayMillis = builder.maxDelayMillis;
+    retryUnsafe = builder.retryUnsafe;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Decide what to do after a response
+   *
+   * @param attempt
+   *          the attempt that got the response, starting at 1
+   * @param verb
+   *          the method of the call
+   * @param path
+   *          the API path of the call (null for the XAuth exchange)
+   * @param response
+   *          the response
+   *
+   * @return how many milliseconds to wait before trying again, or -1 to keep the response
+   */
+  public long retryDelay(final int attempt, final Verb verb, final String path, final TransportResponse response) {
+    final int code = response.getCode();
+    if (!RETRYABLE_CODES.contains(code) || (code != 429 && !isReplayable(verb, path))) {
+      return -1;
+    }
+    final long retryAfter = retryAfterMillis(response.getHeader("Retry-After"));
+    if (retryAfter > maxDelayMillis) {
+      return giveUp(); // not worth holding the caller that long
+    }
+    return next(attempt, Math.max(retryAfter, 0));
+  }
+
+  /**
+   * Decide what to do after a call could not be completed
+   *
+   * @param attempt
+   *          the attempt that failed, starting at 1
+   * @param verb
+   *          the method of the call
+   * @param path
+   *          the API path of the call (null for the XAuth exchange)
+   * @param failure
+   *          why it failed
+   *
+   * @return how many milliseconds to wait before trying again, or -1 to give up
+   */
+  public long retryDelay(final int attempt, final Verb verb, final String path, final IOException failure) {
+    if (failure instanceof InterruptedIOException || !isReplayable(verb, path)) {
+      return -1;
+    }
+    return next(attempt, 0);
+  }
+
+  /**
+   * Whether a call can be sent again after it may have reached the server
+   *
+   * @param verb
+   *          the method of the call
+   * @param path
+   *          the API path of the call
+   *
+   * @return true for reads and for writes that have the same effect when repeated
+   */
+  public boolean isReplayable(final Verb verb, final String path) {
+    if (verb == Verb.GET || verb == Verb.HEAD) {
+      return true;
+    }
+    if (retryUnsafe) {
+      return true;
+    }
+    return path != null && !path.endsWith("/post") && !path.endsWith("/post/reblog");
+  }
+
+  @Override
+  public TransportResponse intercept(final Chain chain) throws IOException {
+    TransportRequest request = chain.request();
+    for (int attempt = 1;; attempt++) {
+      long delay;
+      try {
+        final TransportResponse response = chain.proceed(request);
+        delay = retryDelay(attempt, request.getVerb(), chain.path(), response);
+        if (delay < 0) {
+          return response;
+        }
+      } catch (final IOException e) {
+        delay = retryDelay(attempt, request.getVerb(), chain.path(), e);
+        if (delay < 0) {
+          throw e;
+        }
+      }
+      await(delay);
+      request = chain.newRequest();
+    }
+  }
+
+  /**
+   * Wait before the next attempt
+   *
+   * @param millis
+   *          how long to wait
+   *
+   * @throws InterruptedIOException
+   *           if interrupted while waiting
+   */
+  public void await(final long millis) throws InterruptedIOException {
+    try {
+      sleep(millis);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to retry");
+    }
+  }
+
+  protected void sleep(final long millis) throws InterruptedException {
+    Thread.sleep(millis);
+  }
+
+  /**
+   * @return how many times calls were tried again so far
+   */
+  public long getRetryCount() {
+    return retries.get();
+  }
+
+  /**
+   * @return how many calls still failed after the last attempt allowed
+   */
+  public long getExhaustedCount() {
+    return exhausted.get();
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  private long next(final int attempt, final long atLeast) {
+    if (attempt >= maxAttempts) {
+      return giveUp();
+    }
+    retries.incrementAndGet();
+    final long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 30));
+    return Math.max(atLeast, ThreadLocalRandom.current().nextLong(ceiling + 1));
+  }
+
+  private long giveUp() {
+    exhausted.incrementAndGet();
+    return -1;
+  }
+
+  /**
+   * Parse a Retry-After header, either a number of seconds or an HTTP date
+   *
+   * @param value
+   *          the header value (or null)
+   *
+   * @return the delay it asks for in milliseconds, -1 if there is none or it cannot be read
+   */
+  /* package-visible for testing */ static long retryAfterMillis(final String value) {
+    if (value == null || value.trim().isEmpty()) {
+      return -1;
+    }
+    final String trimmed = value.trim();
+    try {
+      return TimeUnit.SECONDS.toMillis(Math.max(0, Long.parseLong(trimmed)));
+    } catch (final NumberFormatException e) {
+      // not a number of seconds, try a date
+    }
+    try {
+      final long at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+      return Math.max(0, at - System.currentTimeMillis());
+    } catch (final DateTimeParseException e) {
+      return -1;
+    }
+  }
+
+  /**
+   * Configuration for a RetryPolicy
+   */
+  public static class Builder {
+
+    private int maxAttempts = 3;
+    private long baseDelayMillis = 500;
+    private long maxDelayMillis = TimeUnit.SECONDS.toMillis(30);
+    private boolean retryUnsafe;
+
+    /**
+     * @param maxAttempts
+     *          how many times a call is made at most, the first one included (default 3)
+     *
+     * @return this builder
+     */
+    public Builder maxAttempts(final int maxAttempts) {
+      this.maxAttempts = Math.max(1, maxAttempts);
+      return this;
+    }
+
+    /**
+     * @param baseDelay
+     *          the upper bound of the first wait, doubled on each further attempt (default 500ms)
+     * @param maxDelay
+     *          the upper bound of any wait, Retry-After included (default 30s)
+     * @param unit
+     *          the unit of both delays
+     *
+     * @return this builder
+     */
+    public Builder backoff(final long baseDelay, final long maxDelay, final TimeUnit unit) {
+      baseDelayMillis = Math.max(1, unit.toMillis(baseDelay));
+      maxDelayMillis = Math.max(baseDelayMillis, unit.toMillis(maxDelay));
+      return this;
+    }
+
+    /**
+     * @param retryUnsafe
+     *          whether to also retry post creation and reblogs after 5xx and connection errors, at the risk of
+     *          publishing twice (default false)
+     *
+     * @return this builder
+     */
+    public Builder retryUnsafe(final boolean retryUnsafe) {
+      this.retryUnsafe = retryUnsafe;
+      return this;
+    }
+
+    public RetryPolicy build() {
+      return new RetryPolicy(this);
+    }
+
+  }
+
+}
@@ -0,0 +1,149 @@
+package com.tumblr.jumblr.request;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Lets identical GETs made at the same time share one call: the first one goes to the network, the others wait for it
+ * and get the same response (and, as a ResponseWrapper keeps what it decoded, the same decoded objects). Calls are
+ * identical when they have the same path, the same query parameters and the same token.
+ *
+ * Shared results are seen by several callers: treat them as read-only. A shared ResponseWrapper reads its body again
+ * for each accessor, so callers may decode it differently (the posts, or the page of posts). A RequestListener hears
+ * of the calls that waited through {@link RequestListener#requestCoalesced}.
+ */
+public class SingleFlight {
+
+  private final Predicate<String> paths;
+  private final ConcurrentMap<String, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<String, CompletableFuture<Object>>();
+  private final AtomicLong shared = new AtomicLong();
+
+  /**
+   * Share all GETs
+   */
+  public SingleFlight() {
+    this(path -> true);
+  }
+
+  /**
+   * Share the GETs of some endpoints only
+   *
+   * @param paths
+   *          accepts the API paths (such as /blog/staff.tumblr.com/info) whose GETs are shared
+   */
+  public SingleFlight(final Predicate<String> paths) {
+    this.paths = paths;
+  }
+
+  /**
+   * @param path
+   *          an API path
+   *
+   * @return whether GETs of this path are shared
+   */
+  public boolean accepts(final String path) {
+    return paths.test(path);
+  }
+
+  /**
+   * @return how many calls got the result of another one instead of going to the network
+   */
+  public long getSharedCount() {
+    return shared.get();
+  }
+
+  /**
+   * @return how many calls are currently in flight
+   */
+  public int getInFlight() {
+    return inFlight.size();
+  }
+
+  /**
+   * Make a call, or wait for the identical one in flight
+   *
+   * @param key
+   *          identifies the call, see {@link #key(String, Map, String)}
+   * @param call
+   *          makes the call
+   * @param <T>
+   *          the type of the result
+   *
+   * @return the result of the call
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T execute(final String key, final Supplier<T> call) {
+    final CompletableFuture<Object> flight = new CompletableFuture<Object>();
+    final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+    if (existing != null) {
+      shared.incrementAndGet();
+      try {
+        return (T) existing.join();
+      } catch (final CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+    try {
+      final T result = call.get();
+      inFlight.remove(key, flight);
+      flight.complete(result);
+      return result;
+    } catch (final RuntimeException e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    } catch (final Error e) {
+      inFlight.remove(key, flight);
+      flight.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Build the key of a GET
+   *
+   * @param path
+   *          the API path
+   * @param params
+   *          the query parameters (or null), in any order
+   * @param token
+   *          the token the call is signed with (or null)
+   *
+   * @return the key
+   */
+  public static String key(final String path, final Map<String, ?> params, final String token) {
+    final StringBuilder key = new StringBuilder(path);
+    if (params != null && !params.isEmpty()) {
+      char separator = '?';
+      for (final Map.Entry<String, ?> param : new TreeMap<String, Object>(params).entrySet()) {
+        key.append(separator).append(encode(param.getKey())).append('=')
+            .append(encode(String.valueOf(param.getValue())));
+        separator = '&';
+      }
+    }
+    return key.append(' ').append(token == null ? "" : token).toString();
+  }
+
+  private static String encode(final String value) {
+    try {
+      // as in the query string, so that a value holding & or = cannot pass for several parameters
+      return URLEncoder.encode(value, "UTF-8");
+    } catch (final UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
@@ -0,0 +1,28 @@
+package com.tumblr.jumblr.request;
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A request body written straight to the connection rather than held in memory, such as a multi-part upload of large
+ * files. Its length must be known up front so it can be sent as the Content-Length.
+ */
+public interface StreamingBody {
+
+  /**
+   * @return the exact number of bytes {@link #writeTo(WritableByteChannel)} writes
+   */
+  long contentLength();
+
+  /**
+   * Write the body; may be called more than once (when a request is retried or redirected)
+   *
+   * @param target
+   *          where to write to
+   *
+   * @throws IOException
+   *           if the body could not be read or written
+   */
+  void writeTo(WritableByteChannel target) throws IOException;
+
+}
@@ -0,0 +1,25 @@
+package com.tumblr.jumblr.request;
+
+import java.io.IOException;
+
+/**
+ * Sends signed requests over the wire. RequestBuilder builds and signs requests; a Transport owns the sockets, so
+ * connection reuse can be tuned (or replaced for tests) without touching the signing. Implementations must be safe for
+ * concurrent use.
+ */
+public interface Transport {
+
+  /**
+   * Send a request and read its response
+   *
+   * @param request
+   *          the signed request
+   *
+   * @return the response, whatever its status code (including 3xx when the request does not follow redirects)
+   *
+   * @throws IOException
+   *           if the request could not be sent or the response could not be read
+   */
+  TransportResponse execute(TransportRequest request) throws IOException;
+
+}
@@ -0,0 +1,137 @@
+package com.tumblr.jumblr.request;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Verb;
+
+/**
+ * A signed request, ready to be sent by a {@link Transport}
+ */
+public class TransportRequest {
+
+  private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+  private final Verb verb;
+  private final String url;
+  private final Map<String, String> headers = new LinkedHashMap<String, String>();
+  private String contentType;
+  private byte[] body;
+  private StreamingBody streamingBody;
+  private int timeoutSeconds;
+  private boolean followRedirects = true;
+
+  public TransportRequest(final Verb verb, final String url) {
+    this.verb = verb;
+    this.url = url;
+  }
+
+  /**
+   * Copy a (signed) scribe request: its complete URL, its headers and, for POST and PUT, its form-encoded body
+   *
+   * @param request
+   *          the request to copy
+   *
+   * @return the transport request
+   */
+  public static TransportRequest from(final OAuthRequest request) {
+    final TransportRequest result = new TransportRequest(request.getVerb(), request.getCompleteUrl());
+    result.headers.putAll(request.getHeaders());
+    if (request.getVerb() == Verb.POST || request.getVerb() == Verb.PUT) {
+      try {
+        result.setBody(FORM_CONTENT_TYPE, request.getBodyContents().getBytes(request.getCharset()));
+      } catch (final UnsupportedEncodingException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+    return result;
+  }
+
+  public Verb getVerb() {
+    return verb;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public Map<String, String> getHeaders() {
+    return Collections.unmodifiableMap(headers);
+  }
+
+  public void addHeader(final String name, final String value) {
+    headers.put(name, value);
+  }
+
+  public String getContentType() {
+    return contentType;
+  }
+
+  /**
+   * @return the body, or null if there is none or it is streamed
+   */
+  public byte[] getBody() {
+    return body;
+  }
+
+  /**
+   * @return the streamed body, or null if there is none or it is held in memory
+   */
+  public StreamingBody getStreamingBody() {
+    return streamingBody;
+  }
+
+  /**
+   * Set the body of this request
+   *
+   * @param contentType
+   *          the content type of the body
+   * @param body
+   *          the bytes to send
+   */
+  public void setBody(final String contentType, final byte[] body) {
+    this.contentType = contentType;
+    this.body = body;
+    streamingBody = null;
+  }
+
+  /**
+   * Set a body written to the connection as the request is sent
+   *
+   * @param contentType
+   *          the content type of the body
+   * @param body
+   *          writes the bytes to send
+   */
+  public void setBody(final String contentType, final StreamingBody body) {
+    this.contentType = contentType;
+    streamingBody = body;
+    this.body = null;
+  }
+
+  /**
+   * @return the connect, read and write timeout, 0 meaning none
+   */
+  public int getTimeoutSeconds() {
+    return timeoutSeconds;
+  }
+
+  public void setTimeoutSeconds(final int timeoutSeconds) {
+    this.timeoutSeconds = timeoutSeconds;
+  }
+
+  /**
+   * @return whether redirects are followed (the default), or returned as the response
+   */
+  public boolean isFollowRedirects() {
+    return followRedirects;
+  }
+
+  public void setFollowRedirects(final boolean followRedirects) {
+    this.followRedirects = followRedirects;
+  }
+
+}
@@ -0,0 +1,178 @@
+package com.tumblr.jumblr.request;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The response to a {@link TransportRequest}. Header names are matched case-insensitively, as HTTP/2 sends them all in
+ * lower case.
+ *
+ * Transports hand the body over either as a String or as the raw bytes with their charset. Bytes are kept as they
+ * came and decoded straight from a stream over them, see {@link #openBody()}; {@link #getBody()} builds a String only
+ * when asked. The body is read off the connection before the response is handed over, rather than streamed into the
+ * decoder: responses are decoded lazily, maybe more than once (per accessor), and go through retries and caches on
+ * the way, so the connection could not be released before then.
+ */
+public class TransportResponse {
+
+  private final int code;
+  private final Map<String, String> headers;
+  private final byte[] bytes;
+  private final int length;
+  private final Charset charset;
+  private volatile String body;
+
+  /**
+   * @param code
+   *          the HTTP status code
+   * @param headers
+   *          the response headers (the last value for headers sent more than once)
+   * @param body
+   *          the response body
+   */
+  public TransportResponse(final int code, final Map<String, String> headers, final String body) {
+    this(code, headers, null, 0, StandardCharsets.UTF_8, body);
+  }
+
+  /**
+   * @param code
+   *          the HTTP status code
+   * @param headers
+   *          the response headers (the last value for headers sent more than once)
+   * @param body
+   *          the response body, as received (not copied)
+   * @param charset
+   *          the charset of the body
+   */
+  public TransportResponse(final int code, final Map<String, String> headers, final byte[] body,
+      final Charset charset) {
+    this(code, headers, body, body == null ? 0 : body.length, charset);
+  }
+
+  /**
+   * @param code
+   *          the HTTP status code
+   * @param headers
+   *          the response headers (the last value for headers sent more than once)
+   * @param body
+   *          a buffer starting with the response body, as received (not copied)
+   * @param length
+   *          the length of the body within the buffer
+   * @param charset
+   *          the charset of the body
+   */
+  public TransportResponse(final int code, final Map<String, String> headers, final byte[] body, final int length,
+      final Charset charset) {
+    this(code, headers, body == null ? new byte[0] : body, body == null ? 0 : length,
+        charset == null ? StandardCharsets.UTF_8 : charset, null);
+  }
+
+  private TransportResponse(final int code, final Map<String, String> headers, final byte[] bytes, final int length,
+      final Charset charset, final String body) {
+    this.code = code;
+    final Map<String, String> copy = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+    if (headers != null) {
+      copy.putAll(headers);
+    }
+    this.headers = Collections.unmodifiableMap(copy);
+    this.bytes = bytes;
+    this.length = length;
+    this.charset = charset;
+    this.body = body;
+  }
+
+  public int getCode() {
+    return code;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public String getHeader(final String name) {
+    return headers.get(name);
+  }
+
+  /**
+   * @return the response body as a String, built on the first call when the transport handed over bytes
+   */
+  public String getBody() {
+    String result = body;
+    if (result == null && bytes != null) {
+      result = new String(bytes, 0, length, charset);
+      body = result;
+    }
+    return result;
+  }
+
+  /**
+   * Read the body without turning it into a String first
+   *
+   * @return a new reader over the body, empty if there is none
+   */
+  public Reader openBody() {
+    if (bytes != null) {
+      return new InputStreamReader(new ByteArrayInputStream(bytes, 0, length), charset);
+    }
+    return new StringReader(body == null ? "" : body);
+  }
+
+  /**
+   * @return the length of the body in bytes, as received or encoded in UTF-8
+   */
+  public long getBodyLength() {
+    if (bytes != null) {
+      return length;
+    }
+    return utf8Length(body);
+  }
+
+  /**
+   * @param maxChars
+   *          how many characters to return at most
+   *
+   * @return the start of the body, for error messages
+   */
+  public String getBodyPrefix(final int maxChars) {
+    final String result = body;
+    if (result != null) {
+      return result.length() <= maxChars ? result : result.substring(0, maxChars);
+    }
+    if (bytes == null) {
+      return "";
+    }
+    // a character takes at most 4 bytes in the charsets the API uses, decode no more than needed
+    final int prefixLength = (int) Math.min(length, maxChars * 4L);
+    final String prefix = new String(bytes, 0, prefixLength, charset);
+    return prefix.length() <= maxChars ? prefix : prefix.substring(0, maxChars);
+  }
+
+  private static long utf8Length(final String body) {
+    if (body == null) {
+      return 0;
+    }
+    long length = 0;
+    for (int i = 0; i < body.length(); i++) {
+      final char c = body.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < body.length()) {
+        length += 4;
+        i++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
+  }
+
+}
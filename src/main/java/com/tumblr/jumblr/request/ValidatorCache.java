@@ -0,0 +1,120 @@
+package com.tumblr.jumblr.request;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tumblr.jumblr.responses.ResponseWrapper;
+
+/**
+ * Remembers the ETag and Last-Modified of GET responses, along with the response itself, so repeated GETs can be sent
+ * conditionally. When the server answers 304 Not Modified the remembered response is returned again: no body is
+ * transferred and, as a ResponseWrapper keeps what it decoded, nothing is decoded twice. A remembered response keeps
+ * its body too, so it can still be read through another accessor (the posts of a page, then the page itself).
+ *
+ * Entries are keyed on the URL and the token (responses differ per user); past the maximum size the least recently
+ * used is dropped. Remembered responses are shared between callers: treat what they return as read-only.
+ */
+public class ValidatorCache {
+
+  private final int maxEntries;
+  private final LinkedHashMap<String, Entry> entries;
+
+  private final AtomicLong notModified = new AtomicLong();
+  private final AtomicLong stored = new AtomicLong();
+
+  public ValidatorCache() {
+    this(256);
+  }
+
+  /**
+   * @param maxEntries
+   *          how many responses to remember at most
+   */
+  public ValidatorCache(final int maxEntries) {
+    this.maxEntries = Math.max(1, maxEntries);
+    entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(final Map.Entry<String, Entry> eldest) {
+        return size() > ValidatorCache.this.maxEntries;
+      }
+    };
+  }
+
+  /**
+   * @return how many responses were served again after a 304
+   */
+  public long getNotModifiedCount() {
+    return notModified.get();
+  }
+
+  /**
+   * @return how many responses were remembered
+   */
+  public long getStoredCount() {
+    return stored.get();
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+  }
+
+  /* package-visible for RequestBuilder */ synchronized Entry lookup(final String key) {
+    return entries.get(key);
+  }
+
+  /* package-visible for RequestBuilder */ ResponseWrapper notModified(final Entry entry) {
+    notModified.incrementAndGet();
+    return entry.wrapper;
+  }
+
+  /**
+   * Remember a response if it carries validators, forget the previous one otherwise
+   */
+  /* package-visible for RequestBuilder */ void store(final String key, final TransportResponse response,
+      final ResponseWrapper wrapper) {
+    final String etag = response.getHeader("ETag");
+    final String lastModified = response.getHeader("Last-Modified");
+    synchronized (this) {
+      if (etag == null && lastModified == null) {
+        entries.remove(key);
+        return;
+      }
+      entries.put(key, new Entry(etag, lastModified, wrapper));
+    }
+    stored.incrementAndGet();
+  }
+
+  /**
+   * The validators of a response, and the response
+   */
+  static class Entry {
+
+    private final String etag;
+    private final String lastModified;
+    private final ResponseWrapper wrapper;
+
+    Entry(final String etag, final String lastModified, final ResponseWrapper wrapper) {
+      this.etag = etag;
+      this.lastModified = lastModified;
+      this.wrapper = wrapper;
+    }
+
+    void addValidatorsTo(final TransportRequest request) {
+      if (etag != null) {
+        request.addHeader("If-None-Match", etag);
+      }
+      if (lastModified != null) {
+        request.addHeader("If-Modified-Since", lastModified);
+      }
+    }
+
+  }
+
+}
@@ -9,7 +9,10 @@ import java.lang.reflect.Type;
 /**
  *
  * @author jc
+ * @deprecated responses are no longer read as a JsonElement tree, ResponseCodec does not register this anymore; kept
+ *             for Gson instances that still do
  */
+@Deprecated
 public class JsonElementDeserializer implements JsonDeserializer<JsonElement> {
 
     @Override
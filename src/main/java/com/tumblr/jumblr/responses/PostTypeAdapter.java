@@ -0,0 +1,105 @@
+package com.tumblr.jumblr.responses;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.UnknownTypePost;
+
+/**
+ * Reads a Post as the proper subclass (ie: QuotePost, PhotoPost) without building a tree of it, as
+ * {@link PostDeserializer} does: members are read from the stream until "type", which usually comes first, and the
+ * rest of the post is then read straight into the subclass. Only the members met before the type are held as a tree.
+ *
+ * The rest is streamed when the subclass adapter is a {@link SinglePassPostTypeAdapter}, as {@link ResponseCodec}
+ * registers for the built-in post types; any other adapter (for a class registered in {@link PostTypeRegistry}, or one
+ * registered in an overridden {@link ResponseCodec#configure}) gets the post as a tree.
+ */
+public class PostTypeAdapter extends TypeAdapter<Post> {
+
+  private final Gson gson;
+  private final PostTypeRegistry registry;
+  private final TypeAdapter<JsonElement> elements;
+  private final ConcurrentMap<Class<?>, TypeAdapter<? extends Post>> adapters =
+      new ConcurrentHashMap<Class<?>, TypeAdapter<? extends Post>>();
+
+  /**
+   * @param gson
+   *          the Gson to get the subclass and field adapters from
+   * @param registry
+   *          the registry to resolve post types with
+   */
+  public PostTypeAdapter(final Gson gson, final PostTypeRegistry registry) {
+    this.gson = gson;
+    this.registry = registry;
+    elements = gson.getAdapter(JsonElement.class);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public void write(final JsonWriter out, final Post value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    ((TypeAdapter<Post>) gson.getAdapter(value.getClass())).write(out, value);
+  }
+
+  @Override
+  public Post read(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    final JsonObject seen = new JsonObject();
+    in.beginObject();
+    while (in.hasNext()) {
+      final String name = in.nextName();
+      if ("type".equals(name) && in.peek() == JsonToken.STRING) {
+        final String typeName = in.nextString();
+        seen.addProperty(name, typeName);
+        Class<? extends Post> clz = registry.lookup(typeName);
+        if (clz == null) {
+          registry.unknownType(typeName);
+          clz = UnknownTypePost.class;
+        }
+        return readFields(clz, in, seen);
+      }
+      seen.add(name, elements.read(in));
+    }
+    in.endObject();
+    // it's a trail where only the post ID is valid
+    return adapterFor(UnknownTypePost.class).fromJsonTree(seen);
+  }
+
+  private Post readFields(final Class<? extends Post> clz, final JsonReader in, final JsonObject seen)
+      throws IOException {
+    final TypeAdapter<? extends Post> adapter = adapterFor(clz);
+    if (adapter instanceof SinglePassPostTypeAdapter) {
+      return ((SinglePassPostTypeAdapter<? extends Post>) adapter).readFields(in, seen);
+    }
+    while (in.hasNext()) {
+      seen.add(in.nextName(), elements.read(in));
+    }
+    in.endObject();
+    return adapter.fromJsonTree(seen);
+  }
+
+  private TypeAdapter<? extends Post> adapterFor(final Class<? extends Post> clz) {
+    TypeAdapter<? extends Post> result = adapters.get(clz);
+    if (result == null) {
+      result = gson.getAdapter(clz);
+      adapters.putIfAbsent(clz, result);
+    }
+    return result;
+  }
+
+}
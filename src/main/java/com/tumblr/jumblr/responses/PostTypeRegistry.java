@@ -0,0 +1,122 @@
+package com.tumblr.jumblr.responses;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tumblr.jumblr.types.AnswerPost;
+import com.tumblr.jumblr.types.AudioPost;
+import com.tumblr.jumblr.types.ChatPost;
+import com.tumblr.jumblr.types.LinkPost;
+import com.tumblr.jumblr.types.PhotoPost;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.PostcardPost;
+import com.tumblr.jumblr.types.QuotePost;
+import com.tumblr.jumblr.types.TextPost;
+import com.tumblr.jumblr.types.VideoPost;
+
+/**
+ * Maps the "type" of a post as sent by the API to the Post subclass it is deserialized into. Seeded with the known
+ * {@link Post.PostType}s, and open to registration of new types (such as "blocks") at any time.
+ */
+public class PostTypeRegistry {
+
+  /**
+   * Notified whenever a post of a type without a registered class is deserialized
+   */
+  public interface UnknownTypeListener {
+
+    /**
+     * @param typeName
+     *          the type as sent by the API
+     */
+    void onUnknownType(String typeName);
+
+  }
+
+  private final ConcurrentMap<String, Class<? extends Post>> types = new ConcurrentHashMap<String, Class<? extends Post>>();
+  private final AtomicLong unknownTypeCount = new AtomicLong();
+  private volatile UnknownTypeListener unknownTypeListener;
+
+  public PostTypeRegistry() {
+    register(Post.PostType.TEXT, TextPost.class);
+    register(Post.PostType.PHOTO, PhotoPost.class);
+    register(Post.PostType.QUOTE, QuotePost.class);
+    register(Post.PostType.LINK, LinkPost.class);
+    register(Post.PostType.CHAT, ChatPost.class);
+    register(Post.PostType.AUDIO, AudioPost.class);
+    register(Post.PostType.VIDEO, VideoPost.class);
+    register(Post.PostType.ANSWER, AnswerPost.class);
+    register(Post.PostType.POSTCARD, PostcardPost.class);
+  }
+
+  /**
+   * Register the class for a known post type
+   *
+   * @param type
+   *          the post type
+   * @param klass
+   *          the class to deserialize posts of this type into
+   */
+  public void register(final Post.PostType type, final Class<? extends Post> klass) {
+    register(type.getValue(), klass);
+  }
+
+  /**
+   * Register the class for a post type
+   *
+   * @param typeName
+   *          the type as sent by the API
+   * @param klass
+   *          the class to deserialize posts of this type into
+   */
+  public void register(final String typeName, final Class<? extends Post> klass) {
+    types.put(typeName, klass);
+  }
+
+  /**
+   * Find the class for a post type
+   *
+   * @param typeName
+   *          the type as sent by the API
+   *
+   * @return the registered class, or null if there is none
+   */
+  public Class<? extends Post> lookup(final String typeName) {
+    return types.get(typeName);
+  }
+
+  /**
+   * Set the listener to notify about posts of unregistered types
+   *
+   * @param listener
+   *          the listener (or null)
+   */
+  public void setUnknownTypeListener(final UnknownTypeListener listener) {
+    unknownTypeListener = listener;
+  }
+
+  /**
+   * Get how many posts of unregistered types have been deserialized
+   *
+   * @return the count
+   */
+  public long getUnknownTypeCount() {
+    return unknownTypeCount.get();
+  }
+
+  /**
+   * Record a post of an unregistered type
+   *
+   * @param typeName
+   *          the type as sent by the API
+   */
+  void unknownType(final String typeName) {
+    unknownTypeCount.incrementAndGet();
+    final UnknownTypeListener listener = unknownTypeListener;
+    if (listener != null) {
+      listener.onUnknownType(typeName);
+    }
+  }
+
+}
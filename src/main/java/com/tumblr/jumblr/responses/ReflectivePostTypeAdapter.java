@@ -0,0 +1,43 @@
+package com.tumblr.jumblr.responses;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.tumblr.jumblr.types.Post;
+
+/**
+ * Reads a Post subclass with a no-argument constructor in a single pass
+ *
+ * @param <T>
+ *          the Post subclass
+ */
+class ReflectivePostTypeAdapter<T extends Post> extends SinglePassPostTypeAdapter<T> {
+
+  private final Constructor<T> constructor;
+
+  ReflectivePostTypeAdapter(final Gson gson, final Class<T> type) {
+    super(gson, type);
+    try {
+      constructor = type.getDeclaredConstructor();
+    } catch (final NoSuchMethodException e) {
+      throw new IllegalArgumentException(type.getName() + " has no no-argument constructor", e);
+    }
+    constructor.setAccessible(true);
+  }
+
+  @Override
+  protected T newInstance() {
+    try {
+      return constructor.newInstance();
+    } catch (final InstantiationException e) {
+      throw new JsonParseException("Failed to create " + constructor.getDeclaringClass().getName(), e);
+    } catch (final IllegalAccessException e) {
+      throw new JsonParseException("Failed to create " + constructor.getDeclaringClass().getName(), e);
+    } catch (final InvocationTargetException e) {
+      throw new JsonParseException("Failed to create " + constructor.getDeclaringClass().getName(), e.getCause());
+    }
+  }
+
+}
@@ -0,0 +1,132 @@
+package com.tumblr.jumblr.responses;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.tumblr.jumblr.types.AnswerPost;
+import com.tumblr.jumblr.types.AudioPost;
+import com.tumblr.jumblr.types.ChatPost;
+import com.tumblr.jumblr.types.LinkPost;
+import com.tumblr.jumblr.types.Photo;
+import com.tumblr.jumblr.types.PhotoPost;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.PostcardPost;
+import com.tumblr.jumblr.types.QuotePost;
+import com.tumblr.jumblr.types.TextPost;
+import com.tumblr.jumblr.types.UnknownTypePost;
+import com.tumblr.jumblr.types.VideoPost;
+
+/**
+ * Holds the Gson instance used to decode API responses. Building a Gson (and warming up its per-type reflection cache)
+ * is expensive, so a codec is built lazily once and then shared by the RequestBuilder and every ResponseWrapper of a
+ * client. Gson instances are thread-safe, and so is this class.
+ *
+ * Subclass and override {@link #configure(GsonBuilder)} to register additional type adapters.
+ */
+public class ResponseCodec {
+
+  private final PostTypeRegistry postTypes = new PostTypeRegistry();
+  private volatile Gson gson;
+
+  public ResponseCodec() {
+  }
+
+  /**
+   * Create a codec around an already built Gson instance (mostly useful for tests)
+   *
+   * @param gson
+   *          the Gson to use for decoding
+   */
+  public ResponseCodec(final Gson gson) {
+    this.gson = gson;
+  }
+
+  /**
+   * Get the shared Gson instance, building it on first use
+   *
+   * @return the Gson instance
+   */
+  public Gson getGson() {
+    Gson result = gson;
+    if (result == null) {
+      synchronized (this) {
+        result = gson;
+        if (result == null) {
+          result = configure(new GsonBuilder()).create();
+          gson = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Get the registry used to pick the Post subclass for each post type. Types registered here are picked up even after
+   * the Gson instance has been built.
+   *
+   * @return the post type registry
+   */
+  public PostTypeRegistry getPostTypes() {
+    return postTypes;
+  }
+
+  /**
+   * Register the type adapters needed to decode Tumblr responses
+   *
+   * @param builder
+   *          the builder to configure
+   *
+   * @return the configured builder
+   */
+  protected GsonBuilder configure(final GsonBuilder builder) {
+    return builder.registerTypeAdapter(Long.class, new LongTypeAdapter())
+        .registerTypeAdapter(Photo.class, new PhotoTypeAdapter())
+        .registerTypeAdapterFactory(new PostTypeAdapterFactory(postTypes));
+  }
+
+  /**
+   * Creates the post adapters (the one picking the subclass, and the single-pass ones of the built-in post types)
+   * against the Gson being built, so that their fields are decoded with the same adapters (and cache) as everything
+   * else
+   */
+  private static class PostTypeAdapterFactory implements TypeAdapterFactory {
+
+    // read by reflection, through their no-argument constructor
+    private static final Set<Class<? extends Post>> REFLECTIVE_POST_TYPES = Collections.unmodifiableSet(
+        new HashSet<Class<? extends Post>>(Arrays.asList(TextPost.class, PhotoPost.class, QuotePost.class,
+            LinkPost.class, ChatPost.class, AnswerPost.class, PostcardPost.class, UnknownTypePost.class)));
+
+    private final PostTypeRegistry postTypes;
+
+    PostTypeAdapterFactory(final PostTypeRegistry postTypes) {
+      this.postTypes = postTypes;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+      if (type.getRawType() == Post.class) {
+        return (TypeAdapter<T>) new PostTypeAdapter(gson, postTypes);
+      }
+      if (type.getRawType() == VideoPost.class) {
+        return (TypeAdapter<T>) new VideoPostTypeAdapter(gson);
+      }
+      if (type.getRawType() == AudioPost.class) {
+        return (TypeAdapter<T>) new AudioPostTypeAdapter(gson);
+      }
+      if (REFLECTIVE_POST_TYPES.contains(type.getRawType())) {
+        return (TypeAdapter<T>) new ReflectivePostTypeAdapter<Post>(gson, (Class<Post>) type.getRawType());
+      }
+      return null;
+    }
+
+  }
+
+}
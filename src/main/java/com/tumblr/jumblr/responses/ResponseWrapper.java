@@ -1,35 +1,151 @@
 package com.tumblr.jumblr.responses;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
 import com.tumblr.jumblr.JumblrClient;
-import com.tumblr.jumblr.types.AudioPost;
+import com.tumblr.jumblr.exceptions.JumblrException;
 import com.tumblr.jumblr.types.Blog;
 import com.tumblr.jumblr.types.Follower;
 import com.tumblr.jumblr.types.Notes;
 import com.tumblr.jumblr.types.Notifications;
-import com.tumblr.jumblr.types.Photo;
 import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.Posts;
 import com.tumblr.jumblr.types.Resource;
 import com.tumblr.jumblr.types.User;
 import com.tumblr.jumblr.types.UserLimits;
-import com.tumblr.jumblr.types.VideoPost;
 
+/**
+ * Wraps the "response" member of an API envelope. The body is not parsed into a tree: the wrapper holds a JsonReader
+ * positioned on the response value, and each accessor binds straight from the stream to its target type. Decoded
+ * values are kept, so asking again for the same thing returns the same objects.
+ *
+ * A wrapper opened from a {@link Body} reads the body again when asked for something else than what it decoded first
+ * (cached and shared responses are read through several accessors); one made from a bare reader can be decoded only
+ * once.
+ */
 public class ResponseWrapper {
 
-  private JsonElement response;
+  private static final Type POST_LIST = new TypeToken<List<Post>>() {}.getType();
+  private static final Type USER_LIST = new TypeToken<List<User>>() {}.getType();
+  private static final Type FOLLOWER_LIST = new TypeToken<List<Follower>>() {}.getType();
+  private static final Type BLOG_LIST = new TypeToken<List<Blog>>() {}.getType();
+
+  private JsonReader reader;
+  private Body body;
   private JumblrClient client;
+  private int responseCode = 200;
+  private ResponseCodec codec;
+
+  private final Map<String, Object> decoded = new HashMap<String, Object>(2);
+  private DecodeListener decodeListener;
+
+  public ResponseWrapper() {
+  }
+
+  /**
+   * Wrap a reader already positioned on the response value of an envelope
+   *
+   * @param reader
+   *          the reader to decode from
+   * @param codec
+   *          the codec to decode with
+   */
+  public ResponseWrapper(final JsonReader reader, final ResponseCodec codec) {
+    this.reader = reader;
+    this.codec = codec;
+  }
+
+  /**
+   * Read an API envelope up to its "response" member, skipping "meta" and anything else in front of it
+   *
+   * @param body
+   *          the response body
+   * @param codec
+   *          the codec to decode with
+   *
+   * @return the wrapper, or null if the envelope has no response
+   *
+   * @throws IOException
+   *           if the body is not a JSON object
+   */
+  public static ResponseWrapper open(final Reader body, final ResponseCodec codec) throws IOException {
+    final JsonReader reader = skipToResponse(body);
+    return reader == null ? null : new ResponseWrapper(reader, codec);
+  }
+
+  /**
+   * Read an API envelope up to its "response" member, keeping the body around to read it again for other accessors
+   *
+   * @param body
+   *          opens the response body, as many times as needed
+   * @param codec
+   *          the codec to decode with
+   *
+   * @return the wrapper, or null if the envelope has no response
+   *
+   * @throws IOException
+   *           if the body is not a JSON object
+   */
+  public static ResponseWrapper open(final Body body, final ResponseCodec codec) throws IOException {
+    final ResponseWrapper wrapper = open(body.open(), codec);
+    if (wrapper != null) {
+      wrapper.body = body;
+    }
+    return wrapper;
+  }
+
+  private static JsonReader skipToResponse(final Reader body) throws IOException {
+    final JsonReader reader = new JsonReader(body);
+    try {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        if ("response".equals(reader.nextName())) {
+          return reader;
+        }
+        reader.skipValue();
+      }
+    } catch (final IllegalStateException e) {
+      throw new MalformedJsonException(e.getMessage());
+    }
+    return null;
+  }
 
   public void setClient(final JumblrClient client) {
     this.client = client;
   }
 
+  public void setCodec(final ResponseCodec codec) {
+    this.codec = codec;
+  }
+
+  /**
+   * @param responseCode
+   *          the HTTP status of the response, reported by the JumblrException thrown when it cannot be decoded
+   */
+  public void setResponseCode(final int responseCode) {
+    this.responseCode = responseCode;
+  }
+
+  /**
+   * Be told how long decoding the response takes
+   *
+   * @param decodeListener
+   *          called once the response is decoded, null (the default) for none
+   */
+  public void setDecodeListener(final DecodeListener decodeListener) {
+    this.decodeListener = decodeListener;
+  }
+
   public User getUser() {
     return get("user", User.class);
   }
@@ -43,100 +159,63 @@ public class ResponseWrapper {
   }
 
   public Long getId() {
-    final JsonObject object = (JsonObject) response;
-    return object.get("id").getAsLong();
+    return decode("id", Long.class);
   }
 
   public boolean getFollowedBy() {
-    final JsonObject object = (JsonObject) response;
-    return object.get("followed_by").getAsBoolean();
+    final Boolean followedBy = decode("followed_by", Boolean.class);
+    return followedBy;
   }
 
-  // NOTE: needs to be duplicated logic due to Java erasure of generic types
   public List<Post> getPosts() {
-    final Gson gson = gsonParser();
-    final JsonObject object = (JsonObject) response;
-    final JsonArray a;
-    final List<Post> l = gson.fromJson(object.get("posts"), new TypeToken<List<Post>>() {}.getType());
-    for (final Post e : l) {
-      e.setClient(client);
-    }
-    return l;
+    return getList("posts", POST_LIST);
   }
 
-  // NOTE: needs to be duplicated logic due to Java erasure of generic types
   public List<User> getUsers() {
-    final Gson gson = gsonParser();
-    final JsonObject object = (JsonObject) response;
-    final List<User> l = gson.fromJson(object.get("users"), new TypeToken<List<User>>() {}.getType());
-    for (final User e : l) {
-      e.setClient(client);
-    }
-    return l;
+    return getList("users", USER_LIST);
   }
 
-  // NOTE: needs to be duplicated logic due to Java erasure of generic types
   public List<Follower> getFollowers() {
-    final Gson gson = gsonParser();
-    final JsonObject object = (JsonObject) response;
-    final List<Follower> l = gson.fromJson(object.get("users"), new TypeToken<List<Follower>>() {}.getType());
-    for (final Follower e : l) {
-      e.setClient(client);
-    }
-    return l;
+    return getList("users", FOLLOWER_LIST);
   }
 
-  // NOTE: needs to be duplicated logic due to Java erasure of generic types
   public List<Post> getLikedPosts() {
-    final Gson gson = gsonParser();
-    final JsonObject object = (JsonObject) response;
-    final List<Post> l = gson.fromJson(object.get("liked_posts"), new TypeToken<List<Post>>() {}.getType());
-    for (final Post e : l) {
-      e.setClient(client);
-    }
-    return l;
+    return getList("liked_posts", POST_LIST);
   }
 
-  // NOTE: needs to be duplicated logic due to Java erasure of generic types
   public List<Post> getTaggedPosts() {
-    final Gson gson = gsonParser();
-    final List<Post> l = gson.fromJson(response.getAsJsonArray(), new TypeToken<List<Post>>() {}.getType());
-    for (final Post e : l) {
-      e.setClient(client);
-    }
-    return l;
+    return getList(null, POST_LIST);
   }
 
-  // NOTE: needs to be duplicated logic due to Java erasure of generic types
   public List<Blog> getBlogs() {
-    final Gson gson = gsonParser();
-    final JsonObject object = (JsonObject) response;
-    final List<Blog> l = gson.fromJson(object.get("blogs"), new TypeToken<List<Blog>>() {}.getType());
-    for (final Blog e : l) {
-      e.setClient(client);
-    }
-    return l;
+    return getList("blogs", BLOG_LIST);
   }
 
   public Notifications getNotifications() {
-    final Gson gson = gsonParser();
-    final Notifications n = gson.fromJson(response.toString(), Notifications.class);
-    n.setClient(client);
-    return n;
+    return get(null, Notifications.class);
   }
 
   public Notes getNotes() {
-    final Gson gson = gsonParser();
-    final Notes n = gson.fromJson(response.toString(), Notes.class);
-    n.setClient(client);
-    return n;
+    return get(null, Notes.class);
+  }
+
+  /**
+   * Get the posts (or liked posts) of the response together with its _links
+   *
+   * @return the posts and links
+   */
+  public Posts getPostsWithLinks() {
+    final Posts result = get(null, Posts.class);
+    if (result != null && result.getPosts() != null) {
+      for (final Post post : result.getPosts()) {
+        post.setClient(client);
+      }
+    }
+    return result;
   }
 
   public UserLimits getUserLimits() {
-    final Gson gson = gsonParser();
-    final UserLimits l = gson.fromJson(response.toString(), UserLimits.class);
-    l.setClient(client);
-    return l;
+    return get(null, UserLimits.class);
   }
 
   /**
@@ -144,18 +223,131 @@ public class ResponseWrapper {
    **/
 
   private <T extends Resource> T get(final String field, final Class<T> k) {
-    final Gson gson = gsonParser();
-    final JsonObject object = (JsonObject) response;
-    final T e = gson.fromJson(object.get(field).toString(), k);
-    e.setClient(client);
+    final T e = decode(field, k);
+    if (e != null) {
+      e.setClient(client);
+    }
     return e;
   }
 
-  private Gson gsonParser() {
-    return new GsonBuilder().registerTypeAdapter(Post.class, new PostDeserializer())
-        .registerTypeAdapter(Long.class, new LongTypeAdapter()).registerTypeAdapter(Photo.class, new PhotoTypeAdapter())
-        .registerTypeAdapter(VideoPost.class, new VideoPostTypeAdapter())
-        .registerTypeAdapter(AudioPost.class, new AudioPostTypeAdapter()).create();
+  private <T extends Resource> List<T> getList(final String field, final Type listType) {
+    final List<T> l = decode(field, listType);
+    if (l != null) {
+      for (final T e : l) {
+        e.setClient(client);
+      }
+    }
+    return l;
+  }
+
+  /**
+   * Bind a member of the response (or the whole response, if field is null) to the given type
+   *
+   * @param field
+   *          the member of the response object to read, or null for the response itself
+   * @param type
+   *          the type to bind to
+   *
+   * @return the decoded value, or null if the member is absent
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized <T> T decode(final String field, final Type type) {
+    final String key = (field == null ? "" : field) + ' ' + type;
+    if (decoded.containsKey(key)) {
+      return (T) decoded.get(key);
+    }
+    if (reader == null) {
+      if (body == null) {
+        throw new IllegalStateException("Response already decoded as " + decoded.keySet().iterator().next());
+      }
+      try {
+        reader = skipToResponse(body.open());
+      } catch (final IOException e) {
+        throw malformed(e);
+      }
+    }
+    if (codec == null) {
+      codec = new ResponseCodec();
+    }
+    final DecodeListener listener = decodeListener;
+    if (listener == null) {
+      return read(key, field, type);
+    }
+    final long start = System.nanoTime();
+    final T result;
+    try {
+      result = read(key, field, type);
+    } catch (final RuntimeException e) {
+      listener.decoded(System.nanoTime() - start, e);
+      throw e;
+    }
+    listener.decoded(System.nanoTime() - start, null);
+    return result;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> T read(final String key, final String field, final Type type) {
+    final TypeAdapter<T> adapter = (TypeAdapter<T>) codec.getGson().getAdapter(TypeToken.get(type));
+    T result = null;
+    try {
+      if (field == null) {
+        result = adapter.read(reader);
+      } else {
+        reader.beginObject();
+        while (reader.hasNext()) {
+          if (field.equals(reader.nextName())) {
+            result = adapter.read(reader);
+            break;
+          }
+          reader.skipValue();
+        }
+      }
+      reader.close();
+    } catch (final IOException e) {
+      throw malformed(e);
+    } catch (final IllegalStateException e) {
+      throw malformed(e);
+    } catch (final JsonParseException e) {
+      throw malformed(e);
+    } finally {
+      reader = null;
+    }
+    decoded.put(key, result);
+    return result;
+  }
+
+  private JumblrException malformed(final Exception cause) {
+    return new JumblrException(responseCode, "Malformed response: " + cause.getMessage(), cause);
+  }
+
+  /**
+   * A response body that can be read more than once
+   */
+  public interface Body {
+
+    /**
+     * @return a new reader over the whole body
+     *
+     * @throws IOException
+     *           if the body cannot be read
+     */
+    Reader open() throws IOException;
+
+  }
+
+  /**
+   * Told how long decoding a response took
+   */
+  public interface DecodeListener {
+
+    /**
+     * @param nanos
+     *          how long decoding took
+     * @param error
+     *          the error decoding ended with, or null if it succeeded
+     */
+    void decoded(long nanos, RuntimeException error);
+
   }
 
 }
@@ -0,0 +1,167 @@
+package com.tumblr.jumblr.responses;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.tumblr.jumblr.types.Post;
+
+/**
+ * Reads a Post subclass in one pass over the JSON object, setting the shared Post fields and the subclass fields as they
+ * come. The fields are looked up (and made accessible) once per adapter, and their adapters are resolved once on first
+ * use. A java.io.File cannot be deserialized, and a returned post will of course have no file anyway, so File fields
+ * are left out.
+ *
+ * @param <T>
+ *          the Post subclass
+ */
+public abstract class SinglePassPostTypeAdapter<T extends Post> extends TypeAdapter<T> {
+
+  private final Gson gson;
+  private final Map<String, BoundField> fields;
+
+  protected SinglePassPostTypeAdapter(final Gson gson, final Class<T> type) {
+    this.gson = gson;
+    fields = boundFields(type);
+  }
+
+  /**
+   * Create an empty instance to read into
+   *
+   * @return the new post
+   */
+  protected abstract T newInstance();
+
+  @Override
+  public void write(final JsonWriter out, final T value) throws IOException {
+    if (value == null) {
+      out.nullValue();
+      return;
+    }
+    out.beginObject();
+    for (final Map.Entry<String, BoundField> entry : fields.entrySet()) {
+      final Object fieldValue = entry.getValue().get(value);
+      if (fieldValue != null) {
+        out.name(entry.getKey());
+        entry.getValue().adapter().write(out, fieldValue);
+      }
+    }
+    out.endObject();
+  }
+
+  @Override
+  public T read(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+    in.beginObject();
+    return readFields(in, null);
+  }
+
+  /**
+   * Read the rest of a post object whose first members were already read, up to and including its end
+   *
+   * @param in
+   *          the reader, within the post object
+   * @param seen
+   *          the members already read (or null)
+   *
+   * @return the post
+   */
+  /* package-visible for PostTypeAdapter */ T readFields(final JsonReader in, final JsonObject seen)
+      throws IOException {
+    final T post = newInstance();
+    if (seen != null) {
+      for (final Map.Entry<String, JsonElement> member : seen.entrySet()) {
+        final BoundField field = fields.get(member.getKey());
+        if (field != null) {
+          field.set(post, field.adapter().fromJsonTree(member.getValue()));
+        }
+      }
+    }
+    while (in.hasNext()) {
+      final BoundField field = fields.get(in.nextName());
+      if (field == null) {
+        in.skipValue();
+      } else {
+        field.set(post, field.adapter().read(in));
+      }
+    }
+    in.endObject();
+    return post;
+  }
+
+  /**
+   * Collect the serializable fields from the given class up to Post, subclass fields first
+   */
+  private Map<String, BoundField> boundFields(final Class<?> type) {
+    final Map<String, BoundField> result = new LinkedHashMap<String, BoundField>();
+    for (Class<?> k = type; k != null && Post.class.isAssignableFrom(k); k = k.getSuperclass()) {
+      for (final Field field : k.getDeclaredFields()) {
+        final int modifiers = field.getModifiers();
+        if (Modifier.isStatic(modifiers) || Modifier.isTransient(modifiers) || field.isSynthetic()
+            || File.class.isAssignableFrom(field.getType()) || result.containsKey(field.getName())) {
+          continue;
+        }
+        field.setAccessible(true);
+        result.put(field.getName(), new BoundField(field));
+      }
+    }
+    return Collections.unmodifiableMap(result);
+  }
+
+  private final class BoundField {
+
+    private final Field field;
+    private volatile TypeAdapter<Object> adapter;
+
+    BoundField(final Field field) {
+      this.field = field;
+    }
+
+    @SuppressWarnings("unchecked")
+    TypeAdapter<Object> adapter() {
+      TypeAdapter<Object> result = adapter;
+      if (result == null) {
+        result = (TypeAdapter<Object>) gson.getAdapter(TypeToken.get(field.getGenericType()));
+        adapter = result;
+      }
+      return result;
+    }
+
+    Object get(final Object target) {
+      try {
+        return field.get(target);
+      } catch (final IllegalAccessException e) {
+        throw new JsonParseException("Failed to read field " + field.getName(), e);
+      }
+    }
+
+    void set(final Object target, final Object value) {
+      if (value == null && field.getType().isPrimitive()) {
+        return;
+      }
+      try {
+        field.set(target, value);
+      } catch (final IllegalAccessException e) {
+        throw new JsonParseException("Failed to set field " + field.getName(), e);
+      }
+    }
+
+  }
+
+}
@@ -1,5 +1,10 @@
 package com.tumblr.jumblr.types;
 
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class Link extends Resource {
   private String type, href, method;
   private QueryParams query_params;
@@ -20,4 +25,34 @@ public class Link extends Resource {
     return query_params;
   }
 
+  /**
+   * Get all the query parameters of the link, as options for the call it points to. Unlike {@link #getQueryParams()},
+   * which only knows the usual cursors, this includes whatever the href carries (offset, before_timestamp, mode...).
+   *
+   * @return the decoded parameters, empty if there is no href
+   */
+  public Map<String, String> getHrefParameters() {
+    final Map<String, String> result = new LinkedHashMap<String, String>();
+    final int query = href == null ? -1 : href.indexOf('?');
+    if (query < 0) {
+      return result;
+    }
+    for (final String pair : href.substring(query + 1).split("&")) {
+      if (pair.isEmpty()) {
+        continue;
+      }
+      final int eq = pair.indexOf('=');
+      result.put(decode(eq < 0 ? pair : pair.substring(0, eq)), eq < 0 ? "" : decode(pair.substring(eq + 1)));
+    }
+    return result;
+  }
+
+  private static String decode(final String value) {
+    try {
+      return URLDecoder.decode(value, "UTF-8");
+    } catch (final UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
 }
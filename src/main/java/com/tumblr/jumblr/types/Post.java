@@ -360,6 +360,20 @@ public abstract class Post extends Resource {
     return this.reblog(blogName, null);
   }
 
+  /**
+   * Reblog this post without fetching the reblog
+   *
+   * @param blogName
+   *          the blog name to reblog onto
+   * @param options
+   *          options to reblog with (or null)
+   *
+   * @return the id of the reblog
+   */
+  public Long reblogId(final String blogName, final Map<String, ?> options) {
+    return client.postReblogId(blogName, id, reblog_key, options);
+  }
+
   /**
    * Like this post
    */
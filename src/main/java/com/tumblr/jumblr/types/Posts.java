@@ -0,0 +1,22 @@
+package com.tumblr.jumblr.types;
+
+import java.util.List;
+
+/**
+ * A page of posts along with the links to the pages around it, as returned by the dashboard and likes
+ */
+public class Posts extends Resource {
+  private List<Post> posts, liked_posts;
+  private Links _links;
+
+  /**
+   * @return the posts of this page (the liked posts for likes)
+   */
+  public List<Post> getPosts() {
+    return posts != null ? posts : liked_posts;
+  }
+
+  public Links getLinks() {
+    return _links;
+  }
+}
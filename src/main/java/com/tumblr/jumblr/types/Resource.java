@@ -8,7 +8,7 @@ import com.tumblr.jumblr.JumblrClient;
  */
 public class Resource {
 
-    protected JumblrClient client;
+    protected transient JumblrClient client;
 
     /**
      * Set the JumblrClient used for relative calls from this resource
@@ -0,0 +1,135 @@
+package com.tumblr.jumblr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import com.tumblr.jumblr.exceptions.JumblrException;
+import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.responses.ResponseWrapper;
+import com.tumblr.jumblr.types.User;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for AsyncJumblrClient
+ */
+public class AsyncJumblrClientTest {
+
+  JumblrClient client;
+  RequestBuilder builder;
+  AsyncJumblrClient async;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() throws IOException {
+    builder = mock(RequestBuilder.class);
+    client = new JumblrClient("ck", "cs", "@", "@");
+    client.setRequestBuilder(builder);
+    final ResponseWrapper rw = new MockResponseWrapper();
+    when(builder.get(anyString(), anyMap())).thenReturn(rw);
+    when(builder.post(anyString(), anyMap())).thenReturn(rw);
+    when(builder.postMultipart(anyString(), anyMap())).thenReturn(rw);
+    when(builder.getRedirectUrl(anyString())).thenReturn("url");
+    async = new AsyncJumblrClient(client);
+  }
+
+  @Test
+  public void userDashboard() throws Exception {
+    assertTrue(async.userDashboard().get().isEmpty());
+    verify(builder).get("/user/dashboard", null);
+  }
+
+  @Test
+  public void blogAvatar() throws Exception {
+    assertEquals("url", async.blogAvatar("hey.com", 64).get());
+    verify(builder).getRedirectUrl("/blog/hey.com/avatar/64");
+  }
+
+  @Test
+  public void postCreate() throws Exception {
+    final Map<String, String> detail = new HashMap<String, String>();
+    assertEquals(Long.valueOf(42L), async.postCreate("blog", detail).get());
+    verify(builder).postMultipart("/blog/blog.tumblr.com/post", detail);
+  }
+
+  @Test
+  public void like() throws Exception {
+    async.like(42L, "key").get();
+    final Map<String, String> options = new HashMap<String, String>();
+    options.put("id", "42");
+    options.put("reblog_key", "key");
+    verify(builder).post("/user/like", options);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void failure() throws Exception {
+    when(builder.get(anyString(), anyMap())).thenThrow(JumblrException.class);
+    try {
+      async.user().get();
+    } catch (final ExecutionException e) {
+      assertTrue(e.getCause() instanceof JumblrException);
+      return;
+    }
+    throw new AssertionError("expected the future to fail");
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void failureThroughJoinAndChainedStages() throws Exception {
+    when(builder.get(anyString(), anyMap())).thenThrow(JumblrException.class);
+    final CompletableFuture<User> user = async.user();
+    try {
+      user.join();
+      throw new AssertionError("expected the future to fail");
+    } catch (final CompletionException e) {
+      assertTrue(e.getCause() instanceof JumblrException);
+    }
+    final Throwable chained = user.thenApply(User::getName).handle((name, t) -> t).get();
+    assertTrue(chained instanceof CompletionException);
+    assertTrue(chained.getCause() instanceof JumblrException);
+  }
+
+  @Test
+  public void rejectedCall() throws Exception {
+    final AsyncJumblrClient rejecting = new AsyncJumblrClient(client, command -> {
+      throw new RejectedExecutionException();
+    });
+    try {
+      rejecting.user().get();
+      throw new AssertionError("expected the future to fail");
+    } catch (final ExecutionException e) {
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+    }
+  }
+
+  @Test
+  public void customExecutor() throws Exception {
+    final Thread[] ran = new Thread[1];
+    final AsyncJumblrClient direct = new AsyncJumblrClient(client, new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        ran[0] = Thread.currentThread();
+        command.run();
+      }
+    });
+    assertTrue(direct.blogFollowedBy("a", "b").isDone());
+    assertSame(Thread.currentThread(), ran[0]);
+  }
+
+}
@@ -0,0 +1,151 @@
+package com.tumblr.jumblr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.tumblr.jumblr.exceptions.JumblrException;
+import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.request.TransportResponse;
+import com.tumblr.jumblr.responses.ResponseWrapper;
+import com.tumblr.jumblr.types.TextPost;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for BatchPublisher
+ */
+public class BatchPublisherTest {
+
+  JumblrClient client;
+  ExecutorService executor;
+  Map<String, AtomicInteger> inFlight;
+  Map<String, AtomicInteger> maxInFlight;
+  AtomicLong ids;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() throws IOException {
+    executor = Executors.newFixedThreadPool(8);
+    inFlight = new ConcurrentHashMap<String, AtomicInteger>();
+    maxInFlight = new ConcurrentHashMap<String, AtomicInteger>();
+    ids = new AtomicLong();
+    final RequestBuilder builder = mock(RequestBuilder.class);
+    when(builder.postMultipart(anyString(), anyMap())).thenAnswer(new Answer<ResponseWrapper>() {
+      @Override
+      public ResponseWrapper answer(final InvocationOnMock invocation) throws InterruptedException {
+        final String path = (String) invocation.getArguments()[0];
+        final Map<String, ?> detail = (Map<String, ?>) invocation.getArguments()[1];
+        inFlight.putIfAbsent(path, new AtomicInteger());
+        maxInFlight.putIfAbsent(path, new AtomicInteger());
+        final int now = inFlight.get(path).incrementAndGet();
+        synchronized (maxInFlight) {
+          maxInFlight.get(path).set(Math.max(now, maxInFlight.get(path).get()));
+        }
+        try {
+          Thread.sleep(5);
+          if ("fail".equals(detail.get("title"))) {
+            throw new JumblrException(new TransportResponse(400, null, "{\"meta\":{\"msg\":\"Bad Request\"}}"));
+          }
+          final Long id = "no id".equals(detail.get("title")) ? null : ids.incrementAndGet();
+          return new MockResponseWrapper() {
+            @Override
+            public Long getId() {
+              return id;
+            }
+          };
+        } finally {
+          inFlight.get(path).decrementAndGet();
+        }
+      }
+    });
+    client = new JumblrClient("ck", "cs");
+    client.setRequestBuilder(builder);
+  }
+
+  @After
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  private TextPost post(final String blogName, final String title) {
+    final TextPost post = new TextPost();
+    post.setClient(client);
+    post.setBlogName(blogName);
+    post.setTitle(title);
+    return post;
+  }
+
+  @Test
+  public void publishesEveryPostWithBoundedConcurrencyPerBlog() {
+    final List<TextPost> posts = new ArrayList<TextPost>();
+    for (int i = 0; i < 30; i++) {
+      posts.add(post(i % 3 == 0 ? "one" : "two", "post " + i));
+    }
+    posts.set(7, post("two", "fail"));
+
+    final List<BatchPublisher.Result> results = new BatchPublisher(executor, 2).publish(posts);
+    assertEquals(30, results.size());
+    for (int i = 0; i < 30; i++) {
+      final BatchPublisher.Result result = results.get(i);
+      assertSame(posts.get(i), result.getPost());
+      if (i == 7) {
+        assertFalse(result.isSuccess());
+        assertNull(result.getId());
+        assertEquals(400, ((JumblrException) result.getError()).getResponseCode());
+      } else {
+        assertTrue(result.toString(), result.isSuccess());
+        assertEquals(result.getId(), posts.get(i).getId());
+      }
+    }
+    assertTrue(maxInFlight.get("/blog/one.tumblr.com/post").get() <= 2);
+    assertTrue(maxInFlight.get("/blog/two.tumblr.com/post").get() <= 2);
+  }
+
+  @Test
+  public void savesARepeatedPostOnce() {
+    final TextPost repeated = post("one", "repeated");
+    final List<TextPost> posts = new ArrayList<TextPost>();
+    posts.add(repeated);
+    posts.add(post("one", "other"));
+    posts.add(repeated);
+
+    final List<BatchPublisher.Result> results = new BatchPublisher(executor, 2).publish(posts);
+    assertEquals(3, results.size());
+    assertSame(results.get(0), results.get(2));
+    assertTrue(results.get(0).isSuccess());
+    assertEquals(repeated.getId(), results.get(2).getId());
+    assertEquals(2, ids.get());
+  }
+
+  @Test
+  public void aSaveWithoutAnIdFails() {
+    final List<TextPost> posts = new ArrayList<TextPost>();
+    posts.add(post("one", "no id"));
+
+    final BatchPublisher.Result result = new BatchPublisher(executor, 2).publish(posts).get(0);
+    assertFalse(result.isSuccess());
+    assertNull(result.getId());
+    assertTrue(result.getError() instanceof IllegalStateException);
+  }
+
+}
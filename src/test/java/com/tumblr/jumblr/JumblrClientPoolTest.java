@@ -0,0 +1,113 @@
+package com.tumblr.jumblr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.tumblr.jumblr.request.Transport;
+import com.tumblr.jumblr.request.TransportRequest;
+import com.tumblr.jumblr.request.TransportResponse;
+import com.tumblr.jumblr.responses.ResponseCodec;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for routing calls between the tokens of a JumblrClientPool
+ */
+public class JumblrClientPoolTest {
+
+  private static final Pattern TOKEN = Pattern.compile("oauth_token=\"([^\"]*)\"");
+
+  JumblrClientPool pool;
+  Map<String, Integer> remaining;
+  List<String> signedWith;
+
+  @Before
+  public void setup() {
+    remaining = new ConcurrentHashMap<String, Integer>();
+    signedWith = new ArrayList<String>();
+    final Transport transport = new Transport() {
+      @Override
+      public TransportResponse execute(final TransportRequest request) {
+        final Matcher matcher = TOKEN.matcher(request.getHeaders().get("Authorization"));
+        matcher.find();
+        final String token = matcher.group(1);
+        signedWith.add(token);
+        final Map<String, String> headers = new HashMap<String, String>();
+        headers.put("X-Ratelimit-Perhour-Limit", "1000");
+        headers.put("X-Ratelimit-Perhour-Remaining", String.valueOf(remaining.get(token)));
+        headers.put("X-Ratelimit-Perhour-Reset", "3600");
+        final String body = request.getUrl().contains("/tagged") ? "[]" : "{\"blog\":{\"name\":\"b\"},\"posts\":[]}";
+        return new TransportResponse(200, headers, "{\"response\":" + body + "}");
+      }
+    };
+    pool = new JumblrClientPool("ck", "cs", transport, new ResponseCodec());
+    remaining.put("ta", 100);
+    remaining.put("tb", 500);
+  }
+
+  @Test
+  public void routesByBlog() {
+    final JumblrClient a = pool.add("ta", "sa", "alpha", "alpha-art.tumblr.com");
+    final JumblrClient b = pool.add("tb", "sb", "beta");
+    assertNotSame(a, b);
+    assertSame(a, pool.add("ta", "sa", "alpha-photos"));
+    assertEquals(2, pool.getClients().size());
+
+    assertSame(a, pool.forBlog("alpha.tumblr.com"));
+    assertSame(a, pool.forBlog("alpha-art"));
+    assertSame(a, pool.forBlog("alpha-photos"));
+    assertSame(b, pool.forBlog("beta"));
+    assertSame(a.getCodec(), b.getCodec());
+    assertSame(a.getRequestBuilder().getTransport(), b.getRequestBuilder().getTransport());
+    assertSame(a.getRequestBuilder().getService(), b.getRequestBuilder().getService());
+
+    pool.forBlog("beta").blogInfo("beta");
+    assertEquals("tb", signedWith.get(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void unknownBlog() {
+    pool.add("ta", "sa", "alpha");
+    pool.forBlog("gamma");
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void emptyPool() {
+    pool.tagged("cats");
+  }
+
+  @Test
+  public void publicReadsGoWhereTheBudgetIs() {
+    pool.add("ta", "sa", "alpha");
+    pool.add("tb", "sb", "beta");
+    // both unknown: one each
+    pool.blogInfo("staff");
+    pool.blogInfo("staff");
+    assertEquals(2, new HashSet<String>(signedWith).size());
+
+    signedWith.clear();
+    pool.tagged("cats");
+    pool.blogPosts("staff");
+    assertEquals("tb", signedWith.get(0));
+    assertEquals("tb", signedWith.get(1));
+
+    remaining.put("tb", 50);
+    pool.tagged("cats");
+    pool.tagged("cats");
+    pool.tagged("cats");
+    assertEquals("tb", signedWith.get(2));
+    assertEquals("ta", signedWith.get(3));
+    assertEquals("ta", signedWith.get(4));
+  }
+
+}
@@ -1,21 +1,39 @@
 package com.tumblr.jumblr;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.anyMap;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
+import com.tumblr.jumblr.exceptions.JumblrException;
 import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.request.TransportResponse;
 import com.tumblr.jumblr.responses.ResponseWrapper;
+import com.tumblr.jumblr.types.Post;
 import com.tumblr.jumblr.types.QuotePost;
+import com.tumblr.jumblr.types.TextPost;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
 
 /**
  * Tests for JumblrClient
@@ -143,6 +161,21 @@ public class JumblrClientTest {
     verify(builder).getRedirectUrl("/blog/hey.com/avatar/64");
   }
 
+  @Test
+  public void blogAvatars() {
+    client.setExecutor(new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        command.run();
+      }
+    });
+    final Map<String, String> avatars = client.blogAvatars(Arrays.asList("hey.com", "hi.com", "hey.com"), 96);
+    verify(builder).getRedirectUrl("/blog/hey.com/avatar/96");
+    verify(builder).getRedirectUrl("/blog/hi.com/avatar/96");
+    assertEquals(Arrays.asList("hey.com", "hi.com"), new ArrayList<String>(avatars.keySet()));
+    assertEquals("url", avatars.get("hi.com"));
+  }
+
   @Test
   public void blogFollowedBy() {
     client.blogFollowedBy("hey1", "hey2");
@@ -293,6 +326,96 @@ public class JumblrClientTest {
     verify(builder).post("/blog/hey.com/post/reblog", options);
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  public void postReblogId() {
+    assertEquals(Long.valueOf(42L), client.postReblogId("hey.com", 7L, "key"));
+    final Map<String, Object> options = new HashMap<String, Object>();
+    options.put("id", "7");
+    options.put("reblog_key", "key");
+    verify(builder).post("/blog/hey.com/post/reblog", options);
+    verify(builder, never()).get(anyString(), anyMap());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void postReblogs() {
+    when(builder.post(eq("/blog/hey.com/post/reblog"), anyMap())).thenReturn(idWrapper(101L), idWrapper(102L),
+        idWrapper(103L));
+    when(builder.get(eq("/blog/hey.com/posts"), anyMap())).thenAnswer(new Answer<ResponseWrapper>() {
+      @Override
+      public ResponseWrapper answer(final InvocationOnMock invocation) {
+        final Map<String, ?> options = (Map<String, ?>) invocation.getArguments()[1];
+        // the third reblog was queued, so it is not among the newest posts
+        final List<Post> posts = options.containsKey("id") ? Arrays.asList(textPost(103L))
+            : Arrays.asList(textPost(102L), textPost(99L), textPost(101L));
+        return new MockResponseWrapper() {
+          @Override
+          public List<Post> getPosts() {
+            return posts;
+          }
+        };
+      }
+    });
+
+    final List<ReblogResult> reblogs = client.postReblogs("hey.com",
+        Arrays.asList(source(1L), source(2L), source(3L)));
+    assertEquals(3, reblogs.size());
+    for (int i = 0; i < 3; i++) {
+      assertTrue(reblogs.get(i).isSuccess());
+      assertEquals(Long.valueOf(i + 1), reblogs.get(i).getSource().getId());
+      assertEquals(Long.valueOf(101L + i), reblogs.get(i).getId());
+      assertEquals(Long.valueOf(101L + i), reblogs.get(i).getReblog().getId());
+    }
+    verify(builder, times(2)).get(eq("/blog/hey.com/posts"), anyMap());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void postReblogsKeepsGoingPastFailures() {
+    final JumblrException limited = new JumblrException(new TransportResponse(429, null, ""));
+    when(builder.post(eq("/blog/hey.com/post/reblog"), anyMap())).thenReturn(idWrapper(101L))
+        .thenThrow(limited).thenReturn(idWrapper(103L));
+    when(builder.get(eq("/blog/hey.com/posts"), anyMap())).thenReturn(new MockResponseWrapper() {
+      @Override
+      public List<Post> getPosts() {
+        return Arrays.asList(textPost(103L), textPost(101L));
+      }
+    });
+
+    // the same post twice gets two reblogs
+    final Post twice = source(1L);
+    final List<ReblogResult> reblogs = client.postReblogs("hey.com", Arrays.asList(twice, source(2L), twice));
+    assertEquals(Long.valueOf(101L), reblogs.get(0).getReblog().getId());
+    assertFalse(reblogs.get(1).isSuccess());
+    assertSame(limited, reblogs.get(1).getError());
+    assertNull(reblogs.get(1).getId());
+    assertEquals(Long.valueOf(103L), reblogs.get(2).getReblog().getId());
+    assertSame(twice, reblogs.get(2).getSource());
+  }
+
+  private static ResponseWrapper idWrapper(final Long id) {
+    return new MockResponseWrapper() {
+      @Override
+      public Long getId() {
+        return id;
+      }
+    };
+  }
+
+  private static Post textPost(final long id) {
+    final TextPost post = new TextPost();
+    post.setId(id);
+    return post;
+  }
+
+  private static Post source(final long id) {
+    final Post post = mock(Post.class);
+    when(post.getId()).thenReturn(id);
+    when(post.getReblogKey()).thenReturn("key" + id);
+    return post;
+  }
+
   @Test
   public void postEdit() throws IOException {
     final Map<String, Object> options = getRandomishOptions();
@@ -351,6 +474,35 @@ public class JumblrClientTest {
     verify(builder).postXAuth("email", "pass");
   }
 
+  @Test
+  public void builtClientsKeepTheirConfiguration() {
+    final JumblrClient built = new JumblrClient.Builder("ck", "cs").timeoutSeconds(5).build();
+    assertTrue(built.isFrozen());
+    assertTrue(built.getRequestBuilder().isFrozen());
+    assertFalse(client.isFrozen());
+
+    built.setToken("t", "s");
+    assertEquals("t", built.getRequestBuilder().getToken().getToken());
+    try {
+      built.setExecutor(null);
+      fail();
+    } catch (final IllegalStateException e) {
+      // expected
+    }
+    try {
+      built.getRequestBuilder().setTimeoutSeconds(0);
+      fail();
+    } catch (final IllegalStateException e) {
+      // expected
+    }
+    try {
+      built.getRequestBuilder().addInterceptor(chain -> chain.proceed(chain.request()));
+      fail();
+    } catch (final IllegalStateException e) {
+      // expected
+    }
+  }
+
   /**
    * Helper methods
    */
@@ -9,6 +9,7 @@ import com.tumblr.jumblr.types.Follower;
 import com.tumblr.jumblr.types.Notes;
 import com.tumblr.jumblr.types.Notifications;
 import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.Posts;
 import com.tumblr.jumblr.types.User;
 import com.tumblr.jumblr.types.UserLimits;
 
@@ -48,6 +49,11 @@ public class MockResponseWrapper extends ResponseWrapper {
     return new ArrayList<Post>();
   }
 
+  @Override
+  public Posts getPostsWithLinks() {
+    return new Posts();
+  }
+
   @Override
   public List<Post> getLikedPosts() {
     return new ArrayList<Post>();
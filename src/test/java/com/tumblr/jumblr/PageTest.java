@@ -0,0 +1,108 @@
+package com.tumblr.jumblr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.tumblr.jumblr.request.Transport;
+import com.tumblr.jumblr.request.TransportRequest;
+import com.tumblr.jumblr.request.TransportResponse;
+import com.tumblr.jumblr.types.Note;
+import com.tumblr.jumblr.types.Notification;
+import com.tumblr.jumblr.types.Post;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for following _links.next through Pages
+ */
+public class PageTest {
+
+  JumblrClient client;
+  List<String> urls;
+  Map<String, String> responses;
+
+  @Before
+  public void setup() {
+    urls = new ArrayList<String>();
+    responses = new LinkedHashMap<String, String>();
+    client = new JumblrClient("ck", "cs", "t", "ts");
+    client.getRequestBuilder().setTransport(new Transport() {
+      @Override
+      public TransportResponse execute(final TransportRequest request) {
+        final String url = request.getUrl();
+        urls.add(url);
+        for (final Map.Entry<String, String> response : responses.entrySet()) {
+          if (url.contains(response.getKey())) {
+            return new TransportResponse(200, null, "{\"response\":" + response.getValue() + "}");
+          }
+        }
+        return new TransportResponse(404, null, "{\"meta\":{\"status\":404}}");
+      }
+    });
+  }
+
+  @Test
+  public void followsNotesLinks() {
+    responses.put("before_timestamp=100", "{\"total_notes\":3,\"notes\":[{\"type\":\"like\"}]}");
+    responses.put("/notes?", "{\"total_notes\":3,\"notes\":[{\"type\":\"like\"},{\"type\":\"reblog\"}],"
+        + "\"_links\":{\"next\":{\"href\":\"/v2/blog/hey.tumblr.com/notes?id=7&before_timestamp=100&mode=all\","
+        + "\"method\":\"GET\",\"query_params\":{\"before\":\"100\"}}}}");
+
+    final Map<String, Object> options = new HashMap<String, Object>();
+    options.put("mode", "all");
+    final Page<Note> first = client.blogPostNotesPage("hey", 7L, options);
+    assertEquals(2, first.getItems().size());
+    assertTrue(first.hasNext());
+
+    final Page<Note> second = first.next();
+    assertEquals(1, second.getItems().size());
+    assertFalse(second.hasNext());
+    assertTrue(urls.get(1).contains("before_timestamp=100"));
+    assertTrue(urls.get(1).contains("mode=all"));
+    assertTrue(urls.get(1).contains("id=7"));
+  }
+
+  @Test
+  public void iteratesOverNotifications() {
+    responses.put("before=50", "{\"notifications\":[{\"type\":\"follow\"}]}");
+    responses.put("/notifications?", "{\"notifications\":[{\"type\":\"like\"},{\"type\":\"reblog\"}],"
+        + "\"_links\":{\"next\":{\"href\":\"/v2/blog/hey/notifications?before=50&types%5B0%5D=like\"}}}");
+
+    final Iterator<Notification> all = client.blogNotificationsPage("hey", null).iterateAll();
+    int count = 0;
+    while (all.hasNext()) {
+      all.next();
+      count++;
+    }
+    assertEquals(3, count);
+    assertTrue(urls.get(1).contains("types%5B0%5D=like"));
+  }
+
+  @Test
+  public void streamsDashboardAndLikes() {
+    responses.put("offset=2", "{\"posts\":[{\"type\":\"text\",\"id\":3}],"
+        + "\"_links\":{\"next\":{\"href\":\"/v2/user/dashboard?offset=3\"}}}");
+    responses.put("offset=3", "{\"posts\":[]}");
+    responses.put("/dashboard", "{\"posts\":[{\"type\":\"text\",\"id\":1},{\"type\":\"quote\",\"id\":2}],"
+        + "\"_links\":{\"next\":{\"href\":\"/v2/user/dashboard?offset=2\"}}}");
+    responses.put("/likes", "{\"liked_posts\":[{\"type\":\"text\",\"id\":4}],\"liked_count\":1}");
+
+    final List<Long> ids = client.userDashboardPage(null).streamAll().map(Post::getId).collect(Collectors.toList());
+    assertEquals(3, ids.size());
+    assertEquals(Long.valueOf(3L), ids.get(2));
+
+    final Page<Post> likes = client.userLikesPage(null);
+    assertEquals(Long.valueOf(4L), likes.getItems().get(0).getId());
+    assertFalse(likes.hasNext());
+  }
+
+}
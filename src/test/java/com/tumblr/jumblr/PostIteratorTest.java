@@ -0,0 +1,115 @@
+package com.tumblr.jumblr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.responses.ResponseWrapper;
+import com.tumblr.jumblr.types.Post;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/**
+ * Tests for the paging post iterator
+ */
+public class PostIteratorTest {
+
+  JumblrClient client;
+  List<Post> posts;
+  List<String> paths;
+  List<Map<String, ?>> requests;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() {
+    posts = new ArrayList<Post>();
+    for (int i = 0; i < 45; i++) {
+      posts.add(mock(Post.class));
+    }
+    paths = Collections.synchronizedList(new ArrayList<String>());
+    requests = Collections.synchronizedList(new ArrayList<Map<String, ?>>());
+
+    final RequestBuilder builder = mock(RequestBuilder.class);
+    when(builder.get(anyString(), anyMap())).thenAnswer(new Answer<ResponseWrapper>() {
+      @Override
+      public ResponseWrapper answer(final InvocationOnMock invocation) {
+        paths.add((String) invocation.getArguments()[0]);
+        final Map<String, ?> options = (Map<String, ?>) invocation.getArguments()[1];
+        requests.add(options);
+        final int offset = Integer.parseInt(options.get("offset").toString());
+        final int limit = Integer.parseInt(options.get("limit").toString());
+        final List<Post> page = posts.subList(Math.min(offset, posts.size()), Math.min(offset + limit, posts.size()));
+        return new MockResponseWrapper() {
+          @Override
+          public List<Post> getPosts() {
+            return new ArrayList<Post>(page);
+          }
+        };
+      }
+    });
+    client = new JumblrClient("ck", "cs");
+    client.setRequestBuilder(builder);
+    client.setExecutor(new Executor() {
+      @Override
+      public void execute(final Runnable command) {
+        command.run();
+      }
+    });
+  }
+
+  @Test
+  public void iteratesOverAllPages() {
+    final List<Post> got = new ArrayList<Post>();
+    final Iterator<Post> iterator = client.blogPostsIterator("hey");
+    while (iterator.hasNext()) {
+      got.add(iterator.next());
+    }
+    assertEquals(posts, got);
+    assertEquals(3, requests.size());
+    assertEquals(40L, requests.get(2).get("offset"));
+  }
+
+  @Test
+  public void stopsAtMaxPosts() {
+    final List<Post> got = client.blogPostsStream("hey", null, 25).collect(Collectors.toList());
+    assertEquals(posts.subList(0, 25), got);
+    assertEquals(2, requests.size());
+  }
+
+  @Test
+  public void honorsOptions() {
+    final Map<String, Object> options = new HashMap<String, Object>();
+    options.put("type", "photo");
+    options.put("tag", "cats");
+    options.put("offset", 40);
+    options.put("limit", 3);
+    final Iterator<Post> iterator = client.blogPostsIterator("hey", options);
+    int count = 0;
+    while (iterator.hasNext()) {
+      iterator.next();
+      count++;
+    }
+    assertEquals(5, count);
+    assertFalse(iterator.hasNext());
+    assertEquals("/blog/hey.tumblr.com/posts/photo", paths.get(0));
+    assertEquals("cats", requests.get(0).get("tag"));
+    assertEquals(3, requests.get(0).get("limit"));
+    assertEquals(43L, requests.get(1).get("offset"));
+  }
+
+}
@@ -0,0 +1,173 @@
+package com.tumblr.jumblr;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyMap;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.tumblr.jumblr.request.RequestBuilder;
+import com.tumblr.jumblr.responses.ResponseWrapper;
+import com.tumblr.jumblr.types.Blog;
+import com.tumblr.jumblr.types.User;
+import org.junit.Before;
+import org.scribe.model.Token;
+import org.junit.Test;
+
+/**
+ * Tests for ResponseCache, on its own and within JumblrClient
+ */
+public class ResponseCacheTest {
+
+  JumblrClient client;
+  RequestBuilder builder;
+  ResponseCache cache;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() throws IOException {
+    builder = mock(RequestBuilder.class);
+    final ResponseWrapper rw = new MockResponseWrapper() {
+      @Override
+      public Blog getBlog() {
+        return new Blog();
+      }
+
+      @Override
+      public User getUser() {
+        return new User();
+      }
+    };
+    when(builder.get(anyString(), anyMap())).thenReturn(rw);
+    when(builder.post(anyString(), anyMap())).thenReturn(rw);
+    when(builder.postMultipart(anyString(), anyMap())).thenReturn(rw);
+    when(builder.getRedirectUrl(anyString())).thenReturn("url");
+    client = new JumblrClient("ck", "cs");
+    client.setRequestBuilder(builder);
+    cache = new ResponseCache();
+    client.setResponseCache(cache);
+  }
+
+  private static Supplier<String> counting(final AtomicInteger calls, final String value) {
+    return () -> {
+      calls.incrementAndGet();
+      return value;
+    };
+  }
+
+  @Test
+  public void evictsTheLeastRecentlyUsed() {
+    final ResponseCache small = new ResponseCache(2);
+    final AtomicInteger calls = new AtomicInteger();
+    small.get(ResponseCache.Endpoint.BLOG_INFO, "a", counting(calls, "a"));
+    small.get(ResponseCache.Endpoint.BLOG_INFO, "b", counting(calls, "b"));
+    small.get(ResponseCache.Endpoint.BLOG_INFO, "a", counting(calls, "a"));
+    small.get(ResponseCache.Endpoint.BLOG_INFO, "c", counting(calls, "c"));
+    assertEquals(2, small.size());
+    assertEquals(1, small.getEvictionCount());
+
+    small.get(ResponseCache.Endpoint.BLOG_INFO, "a", counting(calls, "a"));
+    assertEquals(3, calls.get());
+    small.get(ResponseCache.Endpoint.BLOG_INFO, "b", counting(calls, "b"));
+    assertEquals(4, calls.get());
+    assertEquals(2, small.getHitCount());
+    assertEquals(4, small.getMissCount());
+  }
+
+  @Test
+  public void expiresAfterTheTtl() throws InterruptedException {
+    final AtomicInteger calls = new AtomicInteger();
+    cache.setTtl(ResponseCache.Endpoint.USER, 20, TimeUnit.MILLISECONDS);
+    cache.get(ResponseCache.Endpoint.USER, "", counting(calls, "u"));
+    cache.get(ResponseCache.Endpoint.USER, "", counting(calls, "u"));
+    assertEquals(1, calls.get());
+    Thread.sleep(40);
+    cache.get(ResponseCache.Endpoint.USER, "", counting(calls, "u"));
+    assertEquals(2, calls.get());
+
+    cache.setTtl(ResponseCache.Endpoint.USER, 0, TimeUnit.MILLISECONDS);
+    cache.get(ResponseCache.Endpoint.USER, "x", counting(calls, "u"));
+    cache.get(ResponseCache.Endpoint.USER, "x", counting(calls, "u"));
+    assertEquals(4, calls.get());
+  }
+
+  @Test
+  public void loadsInvalidatedMeanwhileAreNotStored() {
+    final AtomicInteger calls = new AtomicInteger();
+    cache.get(ResponseCache.Endpoint.BLOG_INFO, "staff", () -> {
+      calls.incrementAndGet();
+      // a write lands while the stale value is on its way
+      cache.invalidate(ResponseCache.Endpoint.BLOG_INFO, "staff");
+      return "stale";
+    });
+    assertEquals(0, cache.size());
+    assertEquals("fresh", cache.get(ResponseCache.Endpoint.BLOG_INFO, "staff", counting(calls, "fresh")));
+    assertEquals(2, calls.get());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  public void userIsCachedPerToken() {
+    when(builder.getToken()).thenReturn(new Token("alice", "s"));
+    client.user();
+    client.user();
+    when(builder.getToken()).thenReturn(new Token("bob", "s"));
+    client.user();
+    verify(builder, times(2)).get("/user/info", null);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void clientCachesReads() {
+    final Blog blog = client.blogInfo("staff");
+    assertSame(blog, client.blogInfo("staff.tumblr.com"));
+    client.user();
+    client.user();
+    client.blogAvatar("staff", 64);
+    client.blogAvatar("staff", 64);
+    client.blogAvatar("staff", 128);
+
+    verify(builder, times(1)).get(eq("/blog/staff.tumblr.com/info"), anyMap());
+    verify(builder, times(1)).get("/user/info", null);
+    verify(builder, times(1)).getRedirectUrl("/blog/staff.tumblr.com/avatar/64");
+    verify(builder, times(1)).getRedirectUrl("/blog/staff.tumblr.com/avatar/128");
+
+    // options are not part of the key, so those calls are not cached
+    final HashMap<String, Object> options = new HashMap<String, Object>();
+    options.put("fields", "title");
+    client.blogInfo("staff", options);
+    client.blogInfo("staff", options);
+    verify(builder, times(3)).get(eq("/blog/staff.tumblr.com/info"), anyMap());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void writesInvalidate() throws IOException {
+    client.blogInfo("staff");
+    client.user();
+    client.follow("staff");
+    client.blogInfo("staff");
+    client.user();
+    verify(builder, times(2)).get(eq("/blog/staff.tumblr.com/info"), anyMap());
+    verify(builder, times(2)).get("/user/info", null);
+
+    client.postEdit("staff", 1L, new HashMap<String, Object>());
+    client.blogInfo("staff");
+    client.postDelete("staff", 1L);
+    client.blogInfo("staff");
+    client.unfollow("staff");
+    client.blogInfo("staff");
+    verify(builder, times(5)).get(eq("/blog/staff.tumblr.com/info"), anyMap());
+  }
+
+}
@@ -1,14 +1,19 @@
 package com.tumblr.jumblr.exceptions;
 
+import com.tumblr.jumblr.request.TransportResponse;
 import com.tumblr.jumblr.types.JumblrError;
 import org.junit.Test;
 import org.scribe.model.Response;
 
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -101,5 +106,47 @@ public class JumblrExceptionTest {
         assertNull(errors);
     }
 
-}
+    @Test
+    public void readsTheBodyAsBytes() {
+        // given
+        byte[] content = "{\"meta\":{\"status\":429,\"msg\":\"Limit Exceeded\"},\"response\":[]}"
+                .getBytes(StandardCharsets.UTF_8);
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("Retry-After", "60");
+
+        // when
+        JumblrException exception = new JumblrException(new TransportResponse(429, headers, content, null));
 
+        // then
+        assertEquals(429, exception.getResponseCode());
+        assertEquals("Limit Exceeded", exception.getMessage());
+        assertEquals("60", exception.getRetryAfter());
+    }
+
+    @Test
+    public void boundsTheMessageOfBodiesThatAreNotJson() {
+        // given
+        StringBuilder page = new StringBuilder("<html>");
+        while (page.length() < 100000) {
+            page.append("<p>Service unavailable</p>");
+        }
+
+        // when
+        JumblrException exception = new JumblrException(new TransportResponse(503, null,
+                page.toString().getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8));
+        JumblrException gateway = new JumblrException(new TransportResponse(502, null, "Bad Gateway"));
+        StringBuilder padded = new StringBuilder("{\"meta\":{\"msg\":\"Not parsed\"},\"pad\":\"");
+        while (padded.length() < 100000) {
+            padded.append("padding ");
+        }
+        JumblrException large = new JumblrException(new TransportResponse(500, null, padded.append("\"}").toString()));
+
+        // then
+        assertEquals(1024, exception.getMessage().length());
+        assertTrue(large.getMessage().startsWith("{\"meta\""));
+        assertEquals(1024, large.getMessage().length());
+        assertTrue(exception.getMessage().startsWith("<html><p>Service unavailable</p>"));
+        assertEquals("Bad Gateway", gateway.getMessage());
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.tumblr.jumblr.request;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.junit.Assert.*;
+import org.junit.Test;
+import org.scribe.exceptions.OAuthSignatureException;
+import org.scribe.services.HMACSha1SignatureService;
+import org.scribe.services.SignatureService;
+
+/**
+ * Tests that cached HMAC signing gives scribe's signatures
+ */
+public class HmacSha1SignerTest {
+
+    private static final String BASE = "GET&https%3A%2F%2Fapi.tumblr.com%2Fv2%2Fuser%2Finfo&oauth_nonce%3D1";
+
+    private final SignatureService scribe = new HMACSha1SignatureService();
+    private final HmacSha1Signer signer = new HmacSha1Signer();
+
+    @Test
+    public void testSameSignaturesAsScribe() {
+        String[][] secrets = { { "cs", "ts" }, { "cs", "" }, { "c&s", "t s+" }, { "cs", "other" }, { "cs", "ts" } };
+        for (String[] pair : secrets) {
+            assertEquals(scribe.getSignature(BASE, pair[0], pair[1]), signer.getSignature(BASE, pair[0], pair[1]));
+            assertEquals(scribe.getSignature(BASE + "2", pair[0], pair[1]),
+                    signer.getSignature(BASE + "2", pair[0], pair[1]));
+        }
+        assertEquals(scribe.getSignatureMethod(), signer.getSignatureMethod());
+    }
+
+    @Test(expected = OAuthSignatureException.class)
+    public void testEmptyBaseString() {
+        signer.getSignature("", "cs", "ts");
+    }
+
+    @Test
+    public void testMacsOutliveTheirThreads() throws Exception {
+        // as with a virtual thread per call: each signature on a thread of its own
+        for (int i = 0; i < 10; i++) {
+            final String base = BASE + i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    signer.getSignature(base, "cs", "ts");
+                }
+            });
+            thread.start();
+            thread.join();
+        }
+        assertEquals(1, signer.getIdleMacs());
+        assertEquals(scribe.getSignature(BASE, "cs", "other"), signer.getSignature(BASE, "cs", "other"));
+        assertEquals(1, signer.getIdleMacs());
+    }
+
+    @Test
+    public void testConcurrentSigning() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; i++) {
+                final String tokenSecret = "ts" + (i % 3);
+                results.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 0; j < 500; j++) {
+                            String secret = j % 2 == 0 ? tokenSecret : "shared";
+                            if (!scribe.getSignature(BASE + j, "cs", secret)
+                                    .equals(signer.getSignature(BASE + j, "cs", secret))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package com.tumblr.jumblr.request;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the interceptor chain of RequestBuilder
+ */
+public class InterceptorTest {
+
+    private static final String BODY = "{\"response\":{\"blog\":{\"name\":\"staff\"}}}";
+
+    private RequestBuilder builder;
+    private LinkedList<Integer> codes;
+    private List<TransportRequest> sent;
+    private List<String> seen;
+
+    @Before
+    public void setup() {
+        codes = new LinkedList<Integer>();
+        sent = new ArrayList<TransportRequest>();
+        seen = new ArrayList<String>();
+        builder = new RequestBuilder(null);
+        builder.setConsumer("ck", "cs");
+        builder.setToken("t", "ts");
+        builder.setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                sent.add(request);
+                int code = codes.isEmpty() ? 200 : codes.removeFirst();
+                return new TransportResponse(code, new HashMap<String, String>(), BODY);
+            }
+        });
+    }
+
+    private Interceptor recording(final String name) {
+        return new Interceptor() {
+            @Override
+            public TransportResponse intercept(Chain chain) throws IOException {
+                seen.add(name + " " + chain.path());
+                TransportResponse response = chain.proceed(chain.request());
+                seen.add(name + " " + response.getCode());
+                return response;
+            }
+        };
+    }
+
+    @Test
+    public void testRetriesKeepWhatAppInterceptorsSet() {
+        builder.addInterceptor(new Interceptor() {
+            @Override
+            public TransportResponse intercept(Chain chain) throws IOException {
+                TransportRequest request = chain.request();
+                request.addHeader("User-Agent", "crawler/1.0");
+                request.setTimeoutSeconds(7);
+                return chain.proceed(request);
+            }
+        });
+        builder.setRetryPolicy(new RetryPolicy(RetryPolicy.builder().backoff(1, 1, TimeUnit.MILLISECONDS)) {
+            @Override
+            protected void sleep(long millis) {
+            }
+        });
+        codes.add(503);
+        builder.get("/user/info", null);
+
+        assertEquals(2, sent.size());
+        for (TransportRequest request : sent) {
+            assertEquals("crawler/1.0", request.getHeaders().get("User-Agent"));
+            assertEquals(7, request.getTimeoutSeconds());
+        }
+        assertFalse(sent.get(0).getHeaders().get("Authorization").equals(sent.get(1).getHeaders().get("Authorization")));
+    }
+
+    @Test
+    public void testOrderAndRetries() {
+        builder.addInterceptor(recording("app"));
+        builder.addNetworkInterceptor(recording("net"));
+        builder.setRetryPolicy(new RetryPolicy(RetryPolicy.builder().backoff(1, 1, TimeUnit.MILLISECONDS)) {
+            @Override
+            protected void sleep(long millis) {
+            }
+        });
+        codes.add(503);
+        builder.get("/user/info", null);
+
+        assertEquals(6, seen.size());
+        assertEquals("app /user/info", seen.get(0));
+        assertEquals("net /user/info", seen.get(1));
+        assertEquals("net 503", seen.get(2));
+        assertEquals("net /user/info", seen.get(3));
+        assertEquals("net 200", seen.get(4));
+        assertEquals("app 200", seen.get(5));
+
+        // each attempt is signed again
+        assertEquals(2, sent.size());
+        assertFalse(sent.get(0).getHeaders().get("Authorization").equals(sent.get(1).getHeaders().get("Authorization")));
+    }
+
+    @Test
+    public void testDefaults() {
+        builder.setTimeoutSeconds(7);
+        builder.post("/user/follow", new HashMap<String, String>());
+        assertTrue(sent.get(0).getHeaders().get("User-Agent").startsWith("jumblr/"));
+        assertEquals(7, sent.get(0).getTimeoutSeconds());
+
+        builder.addInterceptor(new Interceptor() {
+            @Override
+            public TransportResponse intercept(Chain chain) throws IOException {
+                chain.request().addHeader("User-Agent", "crawler/1.0");
+                chain.request().setTimeoutSeconds(30);
+                return chain.proceed(chain.request());
+            }
+        });
+        codes.add(302);
+        builder.getRedirectUrl("/blog/staff.tumblr.com/avatar/64");
+        assertEquals("crawler/1.0", sent.get(1).getHeaders().get("User-Agent"));
+        assertEquals(30, sent.get(1).getTimeoutSeconds());
+    }
+
+    @Test
+    public void testShortCircuit() {
+        final Interceptor canned = new Interceptor() {
+            @Override
+            public TransportResponse intercept(Chain chain) {
+                return new TransportResponse(200, new HashMap<String, String>(),
+                        "{\"response\":{\"blog\":{\"name\":\"canned\"}}}");
+            }
+        };
+        builder.addInterceptor(canned);
+        assertEquals("canned", builder.get("/blog/staff.tumblr.com/info", null).getBlog().getName());
+        assertTrue(sent.isEmpty());
+
+        builder.removeInterceptor(canned);
+        assertEquals("staff", builder.get("/blog/staff.tumblr.com/info", null).getBlog().getName());
+        assertEquals(1, sent.size());
+        assertTrue(builder.getInterceptors().isEmpty());
+    }
+
+}
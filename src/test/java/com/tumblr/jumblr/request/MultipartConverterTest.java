@@ -0,0 +1,84 @@
+package com.tumblr.jumblr.request;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.scribe.model.OAuthRequest;
+import org.scribe.model.Verb;
+
+/**
+ * Tests for MultipartConverter
+ */
+public class MultipartConverterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file(String name, String content) throws IOException {
+        File file = folder.newFile(name);
+        FileOutputStream out = new FileOutputStream(file);
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.close();
+        return file;
+    }
+
+    private static String write(StreamingBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(Channels.newChannel(out));
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testStreamsFilesWithTheAnnouncedLength() throws IOException {
+        Map<String, Object> detail = new LinkedHashMap<String, Object>();
+        detail.put("type", "photo");
+        detail.put("data", file("cat.png", "not really a png"));
+        detail.put("caption", "hi");
+        MultipartConverter converter = new MultipartConverter(new OAuthRequest(Verb.POST, "https://example.com/"), detail);
+
+        TransportRequest request = converter.getTransportRequest();
+        assertNull(request.getBody());
+        StreamingBody body = request.getStreamingBody();
+        String written = write(body);
+        assertEquals(body.contentLength(), written.getBytes(StandardCharsets.UTF_8).length);
+        assertTrue(written.contains("filename=\"cat.png\"\r\nContent-Type: image/png\r\n\r\nnot really a png\r\n"));
+        assertTrue(written.contains("name=\"caption\"\r\n\r\nhi\r\n"));
+        // can be written again for a retry
+        assertEquals(written, write(body));
+    }
+
+    @Test
+    public void testChangedFileFailsTheUpload() throws IOException {
+        Map<String, Object> detail = new LinkedHashMap<String, Object>();
+        File file = file("clip.mp4", "short");
+        detail.put("data", file);
+        StreamingBody body = new MultipartConverter(new OAuthRequest(Verb.POST, "https://example.com/"), detail).getBody();
+        FileOutputStream out = new FileOutputStream(file, true);
+        out.write("er".getBytes(StandardCharsets.UTF_8));
+        out.close();
+        try {
+            write(body);
+            fail();
+        } catch (IOException e) {
+            assertTrue(e.getMessage().startsWith("File changed"));
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void testMissingFile() throws IOException {
+        Map<String, Object> detail = new LinkedHashMap<String, Object>();
+        detail.put("data", new File(folder.getRoot(), "missing.png"));
+        new MultipartConverter(new OAuthRequest(Verb.POST, "https://example.com/"), detail);
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.tumblr.jumblr.request;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import okhttp3.OkHttpClient;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.model.Verb;
+
+/**
+ * Tests for OkHttpTransport against a local HTTP server
+ */
+public class OkHttpTransportTest {
+
+    private HttpServer server;
+    private String baseUrl;
+    private volatile String lastBody;
+    private volatile String lastContentType;
+    private volatile String lastContentLength;
+    private volatile String lastAcceptEncoding;
+
+    @Before
+    public void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                lastBody = read(exchange.getRequestBody());
+                if (exchange.getRequestURI().getPath().equals("/v2/avatar")) {
+                    exchange.getResponseHeaders().add("Location", "/v2/avatar.png");
+                    exchange.sendResponseHeaders(302, -1);
+                    exchange.close();
+                    return;
+                }
+                if (exchange.getRequestURI().getPath().equals("/v2/slow")) {
+                    try {
+                        Thread.sleep(1000);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                    exchange.close();
+                    return;
+                }
+                if (exchange.getRequestURI().getPath().equals("/v2/error/page")) {
+                    byte[] page = new byte[200 * 1024];
+                    Arrays.fill(page, (byte) 'x');
+                    exchange.sendResponseHeaders(500, page.length);
+                    exchange.getResponseBody().write(page);
+                    exchange.close();
+                    return;
+                }
+                if (exchange.getRequestURI().getPath().startsWith("/v2/compressed/")) {
+                    compressed(exchange);
+                    return;
+                }
+                lastContentType = exchange.getRequestHeaders().getFirst("Content-Type");
+                lastContentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                byte[] response = ("{\"path\":\"" + exchange.getRequestURI() + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("X-Ratelimit-Perhour-Remaining", "99");
+                exchange.sendResponseHeaders(200, response.length);
+                OutputStream out = exchange.getResponseBody();
+                out.write(response);
+                out.close();
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static final String REPETITIVE;
+    static {
+        StringBuilder json = new StringBuilder("{\"posts\":[");
+        for (int i = 0; i < 200; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"type\":\"text\",\"blog_name\":\"staff\",\"id\":").append(i).append('}');
+        }
+        REPETITIVE = json.append("]}").toString();
+    }
+
+    private void compressed(HttpExchange exchange) throws IOException {
+        lastAcceptEncoding = exchange.getRequestHeaders().getFirst("Accept-Encoding");
+        String encoding = exchange.getRequestURI().getPath().substring("/v2/compressed/".length());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        OutputStream out = bytes;
+        if (encoding.equals("gzip")) {
+            out = new GZIPOutputStream(bytes);
+        } else if (encoding.equals("deflate")) {
+            out = new DeflaterOutputStream(bytes);
+        } else if (encoding.equals("raw-deflate")) {
+            out = new DeflaterOutputStream(bytes, new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+            encoding = "deflate";
+        }
+        out.write(REPETITIVE.getBytes(StandardCharsets.UTF_8));
+        out.close();
+        if (!encoding.equals("identity")) {
+            exchange.getResponseHeaders().add("Content-Encoding", encoding);
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.size());
+        exchange.getResponseBody().write(bytes.toByteArray());
+        exchange.close();
+    }
+
+    @After
+    public void teardown() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testGet() throws IOException {
+        OkHttpTransport transport = OkHttpTransport.builder().http2(false).build();
+        TransportResponse response = transport.execute(new TransportRequest(Verb.GET, baseUrl + "/v2/path?a=b"));
+
+        assertEquals(200, response.getCode());
+        assertEquals("{\"path\":\"/v2/path?a=b\"}", response.getBody());
+        assertEquals("99", response.getHeader("x-ratelimit-perhour-remaining"));
+    }
+
+    @Test
+    public void testPostBody() throws IOException {
+        OkHttpTransport transport = new OkHttpTransport();
+        TransportRequest request = new TransportRequest(Verb.POST, baseUrl + "/v2/post");
+        request.setBody("multipart/form-data, boundary=abc", "--abc--\r\n".getBytes(StandardCharsets.UTF_8));
+        transport.execute(request);
+
+        assertEquals("--abc--\r\n", lastBody);
+        assertEquals("multipart/form-data, boundary=abc", lastContentType);
+    }
+
+    @Test
+    public void testStreamingBody() throws IOException {
+        OkHttpTransport transport = new OkHttpTransport();
+        TransportRequest request = new TransportRequest(Verb.POST, baseUrl + "/v2/post");
+        request.setBody("multipart/form-data, boundary=abc", new StreamingBody() {
+            @Override
+            public long contentLength() {
+                return 9;
+            }
+
+            @Override
+            public void writeTo(WritableByteChannel target) throws IOException {
+                target.write(ByteBuffer.wrap("--abc".getBytes(StandardCharsets.UTF_8)));
+                target.write(ByteBuffer.wrap("--\r\n".getBytes(StandardCharsets.UTF_8)));
+            }
+        });
+        transport.execute(request);
+
+        assertEquals("--abc--\r\n", lastBody);
+        assertEquals("9", lastContentLength);
+        assertEquals("multipart/form-data, boundary=abc", lastContentType);
+    }
+
+    @Test
+    public void testConnectionsAreReused() throws IOException {
+        OkHttpTransport transport = OkHttpTransport.builder().maxConnectionsPerHost(2).build();
+        for (int i = 0; i < 5; i++) {
+            transport.execute(new TransportRequest(Verb.GET, baseUrl + "/v2/" + i));
+        }
+        assertEquals(1, transport.getConnectionPool().connectionCount());
+    }
+
+    @Test
+    public void testRedirects() throws IOException {
+        OkHttpTransport transport = new OkHttpTransport();
+        TransportRequest request = new TransportRequest(Verb.GET, baseUrl + "/v2/avatar");
+        request.setFollowRedirects(false);
+        TransportResponse response = transport.execute(request);
+        assertEquals(302, response.getCode());
+        assertEquals("/v2/avatar.png", response.getHeader("Location"));
+
+        response = transport.execute(new TransportRequest(Verb.GET, baseUrl + "/v2/avatar"));
+        assertEquals(200, response.getCode());
+        assertEquals("{\"path\":\"/v2/avatar.png\"}", response.getBody());
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testCompressedResponses() throws IOException {
+        OkHttpTransport transport = new OkHttpTransport();
+        for (String encoding : new String[] { "gzip", "deflate", "raw-deflate" }) {
+            TransportResponse response = transport.execute(new TransportRequest(Verb.GET, baseUrl + "/v2/compressed/" + encoding));
+            assertEquals("gzip, deflate", lastAcceptEncoding);
+            assertEquals(REPETITIVE, response.getBody());
+            assertNull(response.getHeader("Content-Encoding"));
+            assertNull(response.getHeader("Content-Length"));
+        }
+        transport.execute(new TransportRequest(Verb.GET, baseUrl + "/v2/compressed/identity"));
+
+        CompressionStats stats = transport.getCompressionStats();
+        assertEquals(4, stats.getResponseCount());
+        assertEquals(3, stats.getCompressedResponseCount());
+        assertEquals(4 * REPETITIVE.length(), stats.getDecodedBytes());
+        assertTrue(stats.getSavedBytes() > 2 * REPETITIVE.length());
+    }
+
+    @Test
+    public void testInflatedBodiesAreSizedFromWhatWasSeen() throws IOException {
+        OkHttpTransport transport = new OkHttpTransport();
+        CompressionStats stats = transport.getCompressionStats();
+        assertEquals(8800, stats.estimateDecoded(1000));
+
+        TransportResponse response = transport.execute(new TransportRequest(Verb.GET, baseUrl + "/v2/compressed/gzip"));
+        assertEquals(REPETITIVE.length(), response.getBodyLength());
+        long wire = stats.getWireBytes();
+        assertEquals(REPETITIVE.length() * 1.1, stats.estimateDecoded(wire), 1);
+
+        // the body is handed over within a larger buffer
+        byte[] buffer = "{\"a\":1}    ".getBytes(StandardCharsets.UTF_8);
+        TransportResponse padded = new TransportResponse(200, null, buffer, 7, StandardCharsets.UTF_8);
+        assertEquals("{\"a\":1}", padded.getBody());
+        assertEquals(7, padded.getBodyLength());
+        assertEquals("{\"a", padded.getBodyPrefix(3));
+    }
+
+    @Test
+    public void testOnlyTheStartOfErrorBodiesIsRead() throws IOException {
+        TransportResponse response = new OkHttpTransport()
+                .execute(new TransportRequest(Verb.GET, baseUrl + "/v2/error/page"));
+        assertEquals(500, response.getCode());
+        assertEquals(64 * 1024, response.getBodyLength());
+    }
+
+    @Test
+    public void testNoTimeoutMeansNone() throws IOException {
+        // the client's own timeouts are not used, a request without one waits as long as it takes
+        OkHttpTransport transport = OkHttpTransport.builder()
+                .client(new OkHttpClient.Builder().readTimeout(100, TimeUnit.MILLISECONDS).build()).build();
+        TransportRequest request = new TransportRequest(Verb.GET, baseUrl + "/v2/slow");
+        assertEquals(0, request.getTimeoutSeconds());
+        assertEquals(204, transport.execute(request).getCode());
+    }
+
+    @Test
+    public void testCompressionTurnedOff() throws IOException {
+        OkHttpTransport transport = OkHttpTransport.builder().compression(false).build();
+        TransportResponse response = transport.execute(new TransportRequest(Verb.GET, baseUrl + "/v2/compressed/gzip"));
+        // OkHttp negotiates gzip on its own then
+        assertEquals("gzip", lastAcceptEncoding);
+        assertEquals(REPETITIVE, response.getBody());
+        assertEquals(0, transport.getCompressionStats().getCompressedResponseCount());
+
+        TransportRequest request = new TransportRequest(Verb.GET, baseUrl + "/v2/compressed/identity");
+        request.addHeader("Accept-Encoding", "identity");
+        new OkHttpTransport().execute(request);
+        assertEquals("identity", lastAcceptEncoding);
+    }
+
+}
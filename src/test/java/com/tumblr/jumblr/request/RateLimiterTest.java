@@ -0,0 +1,148 @@
+package com.tumblr.jumblr.request;
+
+import com.google.gson.Gson;
+import com.tumblr.jumblr.types.Limit;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests for the token bucket RateLimiter
+ */
+public class RateLimiterTest {
+
+    private static RateLimits limits(int hourRemaining, int hourReset, int dayRemaining, int dayReset) {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("X-Ratelimit-Perhour-Limit", "1000");
+        headers.put("X-Ratelimit-Perhour-Remaining", String.valueOf(hourRemaining));
+        headers.put("X-Ratelimit-Perhour-Reset", String.valueOf(hourReset));
+        headers.put("X-Ratelimit-Perday-Limit", "5000");
+        headers.put("X-Ratelimit-Perday-Remaining", String.valueOf(dayRemaining));
+        headers.put("X-Ratelimit-Perday-Reset", String.valueOf(dayReset));
+        return new RateLimits(headers);
+    }
+
+    private static RateLimits hourly(int remaining, int reset) {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("X-Ratelimit-Perhour-Limit", "1000");
+        headers.put("X-Ratelimit-Perhour-Remaining", String.valueOf(remaining));
+        headers.put("X-Ratelimit-Perhour-Reset", String.valueOf(reset));
+        return new RateLimits(headers);
+    }
+
+    @Test
+    public void testUnseededDoesNotWait() throws IOException {
+        RateLimiter limiter = new RateLimiter(1);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire("/user/info");
+        }
+        assertEquals(0, limiter.getDelayedCount());
+        assertTrue(Double.isNaN(limiter.getRate()));
+    }
+
+    @Test
+    public void testSpreadsTheStricterWindow() {
+        RateLimiter limiter = new RateLimiter();
+        limiter.update(limits(900, 3600, 100, 400));
+        assertEquals(0.25, limiter.getRate(), 1e-9);
+
+        limiter.update(new RateLimits());
+        assertEquals(0.25, limiter.getRate(), 1e-9);
+    }
+
+    /**
+     * A clock that only moves when a caller sleeps, recording each wait
+     */
+    private static class FakeClock implements RateLimiter.Clock {
+
+        long now;
+        final List<Long> sleeps = new ArrayList<Long>();
+
+        @Override
+        public long nanoTime() {
+            return now;
+        }
+
+        @Override
+        public void sleep(long nanos) {
+            sleeps.add(nanos);
+            now += nanos;
+        }
+
+    }
+
+    @Test
+    public void testPacesOnceTheBurstIsSpent() throws IOException {
+        FakeClock clock = new FakeClock();
+        RateLimiter limiter = new RateLimiter(2, clock);
+        limiter.update(hourly(50, 1));
+        assertEquals(50, limiter.getRate(), 1e-9);
+        for (int i = 0; i < 6; i++) {
+            limiter.acquire("/user/info");
+        }
+        // 2 right away, then 4 more at 50 per second: 20ms apart
+        long twentyMillis = TimeUnit.MILLISECONDS.toNanos(20);
+        assertEquals(Arrays.asList(twentyMillis, twentyMillis, twentyMillis, twentyMillis), clock.sleeps);
+        assertEquals(80, limiter.getDelayedTime(TimeUnit.MILLISECONDS));
+        assertEquals(4, limiter.getDelayedCount());
+        assertEquals(0, limiter.getWaiting());
+
+        // a pause refills the burst, no more than it
+        clock.now += TimeUnit.SECONDS.toNanos(1);
+        limiter.acquire("/user/info");
+        limiter.acquire("/user/info");
+        assertEquals(4, limiter.getDelayedCount());
+        limiter.acquire("/user/info");
+        assertEquals(Long.valueOf(twentyMillis), clock.sleeps.get(4));
+    }
+
+    @Test
+    public void testUserLimitsSeedActionBuckets() throws IOException {
+        RateLimiter limiter = new RateLimiter(1);
+        long resetAt = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + 100;
+        Map<String, Limit> limits = new HashMap<String, Limit>();
+        limits.put("follows", new Gson().fromJson("{\"limit\":200,\"remaining\":0,\"reset_at\":" + resetAt + "}",
+                Limit.class));
+        limiter.update(limits);
+
+        assertEquals(0, limiter.getAvailable("follows"), 1e-3);
+        assertTrue(Double.isNaN(limiter.getAvailable("likes")));
+        limiter.acquire("/user/like");
+        assertEquals(0, limiter.getDelayedCount());
+    }
+
+    @Test
+    public void testActions() {
+        assertEquals("posts", RateLimiter.actionFor("/blog/hey.tumblr.com/post"));
+        assertEquals("posts", RateLimiter.actionFor("/blog/hey.tumblr.com/post/reblog"));
+        assertEquals("follows", RateLimiter.actionFor("/user/follow"));
+        assertEquals("likes", RateLimiter.actionFor("/user/like"));
+        assertNull(RateLimiter.actionFor("/blog/hey.tumblr.com/post/delete"));
+        assertNull(RateLimiter.actionFor(null));
+    }
+
+    @Test
+    public void testRequestBuilderFeedsTheLimiter() {
+        RequestBuilder builder = new RequestBuilder(null);
+        builder.setRateLimiter(new RateLimiter());
+        builder.setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                Map<String, String> headers = new HashMap<String, String>();
+                headers.put("x-ratelimit-perhour-limit", "1000");
+                headers.put("x-ratelimit-perhour-remaining", "720");
+                headers.put("x-ratelimit-perhour-reset", "3600");
+                return new TransportResponse(200, headers, "{\"response\":{}}");
+            }
+        });
+        builder.get("/user/info", null);
+        assertEquals(0.2, builder.getRateLimiter().getRate(), 1e-9);
+    }
+
+}
@@ -0,0 +1,59 @@
+package com.tumblr.jumblr.request;
+
+import java.util.HashMap;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+/**
+ * Tests for merging the rate limits of concurrent responses
+ */
+public class RateLimitsTest {
+
+    private static RateLimits limits(long observedAt, int hourRemaining, int hourReset, int dayRemaining, int dayReset) {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put("X-Ratelimit-Perhour-Remaining", String.valueOf(hourRemaining));
+        headers.put("X-Ratelimit-Perhour-Limit", "1000");
+        headers.put("X-Ratelimit-Perhour-Reset", String.valueOf(hourReset));
+        headers.put("X-Ratelimit-Perday-Remaining", String.valueOf(dayRemaining));
+        headers.put("X-Ratelimit-Perday-Limit", "5000");
+        headers.put("X-Ratelimit-Perday-Reset", String.valueOf(dayReset));
+        return new RateLimits(headers, observedAt);
+    }
+
+    @Test
+    public void testSameWindowKeepsTheLowestRemaining() {
+        RateLimits older = limits(10000, 500, 600, 4000, 80000);
+        // completed later, but was counted before
+        RateLimits newer = limits(11000, 510, 599, 4010, 79999);
+        RateLimits merged = older.merge(newer);
+        assertEquals(500, merged.getPerhourRemaining());
+        assertEquals(4000, merged.getPerdayRemaining());
+        assertEquals(599, merged.getPerhourReset());
+        assertEquals(older.merge(newer).getPerhourRemaining(), newer.merge(older).getPerhourRemaining());
+    }
+
+    @Test
+    public void testResetWindowWins() {
+        RateLimits beforeReset = limits(10000, 3, 5, 4000, 80000);
+        RateLimits afterReset = limits(16000, 999, 3600, 3990, 79994);
+        RateLimits merged = beforeReset.merge(afterReset);
+        assertEquals(999, merged.getPerhourRemaining());
+        assertEquals(3600, merged.getPerhourReset());
+        assertEquals(3990, merged.getPerdayRemaining());
+
+        // a late snapshot from before the reset does not bring the old window back
+        merged = afterReset.merge(beforeReset);
+        assertEquals(999, merged.getPerhourRemaining());
+        assertEquals(1000, merged.getPerhourLimit());
+    }
+
+    @Test
+    public void testResponsesWithoutHeadersChangeNothing() {
+        RateLimits known = limits(10000, 500, 600, 4000, 80000);
+        assertSame(known, known.merge(new RateLimits(new HashMap<String, String>())));
+        assertSame(known, known.merge(null));
+        assertSame(known, new RateLimits().merge(known));
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.tumblr.jumblr.request;
+
+import com.tumblr.jumblr.JumblrClient;
+import com.tumblr.jumblr.responses.ResponseWrapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Stress tests for sharing one RequestBuilder, or one JumblrClient, between threads
+ */
+public class RequestBuilderConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int CALLS = 200;
+
+    private ExecutorService executor;
+    private RequestBuilder builder;
+    private AtomicInteger remaining;
+    private List<String> failures;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        remaining = new AtomicInteger(THREADS * CALLS);
+        failures = new ArrayList<String>();
+        builder = new RequestBuilder(null);
+        builder.setConsumer("ck", "cs");
+        builder.setToken("t0", "s0");
+        builder.setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                String authorization = request.getHeaders().get("Authorization");
+                if (authorization == null || !authorization.matches(".*oauth_token=\"t\\d\".*")) {
+                    synchronized (failures) {
+                        failures.add(String.valueOf(authorization));
+                    }
+                }
+                Map<String, String> headers = new HashMap<String, String>();
+                headers.put("X-Ratelimit-Perhour-Remaining", String.valueOf(remaining.decrementAndGet()));
+                headers.put("X-Ratelimit-Perhour-Limit", String.valueOf(THREADS * CALLS));
+                headers.put("X-Ratelimit-Perhour-Reset", "3600");
+                return new TransportResponse(200, headers, "{\"response\":{\"blog\":{\"name\":\"staff\"}}}");
+            }
+        });
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private void hammer(final Callable<?> call) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<Future<?>>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    start.await();
+                    for (int j = 0; j < CALLS; j++) {
+                        call.call();
+                    }
+                    return null;
+                }
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testRateLimitsKeepTheMostRestrictive() throws Exception {
+        hammer(new Callable<ResponseWrapper>() {
+            @Override
+            public ResponseWrapper call() {
+                return builder.get("/blog/staff.tumblr.com/info", null);
+            }
+        });
+        // whatever order the responses completed in, the last count the server gave wins
+        assertEquals(0, builder.getRateLimits().getPerhourRemaining());
+        assertEquals(THREADS * CALLS, builder.getRateLimits().getPerhourLimit());
+        assertTrue(failures.isEmpty());
+    }
+
+    @Test
+    public void testReconfiguringWhileCalling() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        hammer(new Callable<Object>() {
+            @Override
+            public Object call() {
+                int call = calls.incrementAndGet();
+                if (call % 10 == 0) {
+                    builder.setToken("t" + (call / 10) % 10, "s");
+                    builder.setTimeoutSeconds(call % 30);
+                    return null;
+                }
+                return builder.get("/blog/staff.tumblr.com/info", null);
+            }
+        });
+        // every request was signed with one of the tokens, never a torn or missing one
+        assertTrue(failures.toString(), failures.isEmpty());
+    }
+
+    @Test
+    public void testSharedClient() throws Exception {
+        final JumblrClient client = new JumblrClient.Builder("ck", "cs")
+                .token("t1", "s1")
+                .transport(builder.getTransport())
+                .singleFlight(new SingleFlight())
+                .validatorCache(new ValidatorCache())
+                .build();
+        hammer(new Callable<String>() {
+            @Override
+            public String call() {
+                return client.blogInfo("staff").getName();
+            }
+        });
+        assertTrue(failures.isEmpty());
+        assertTrue(client.getRateLimits().getPerhourRemaining() < THREADS * CALLS);
+    }
+
+}
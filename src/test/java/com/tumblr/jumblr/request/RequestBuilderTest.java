@@ -2,18 +2,26 @@ package com.tumblr.jumblr.request;
 
 import com.tumblr.jumblr.JumblrClient;
 import com.tumblr.jumblr.exceptions.JumblrException;
+import com.tumblr.jumblr.responses.ResponseCodec;
 import com.tumblr.jumblr.responses.ResponseWrapper;
+import com.tumblr.jumblr.types.Blog;
+import com.tumblr.jumblr.types.Notes;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.TextPost;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import static org.junit.Assert.*;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 import org.scribe.model.OAuthRequest;
-import org.scribe.model.Response;
+import org.scribe.model.Verb;
 import org.scribe.model.Token;
 
 public class RequestBuilderTest {
@@ -28,16 +36,148 @@ public class RequestBuilderTest {
         rb = new RequestBuilder(null);
     }
 
+    private TransportResponse response(int code, String body) {
+        return new TransportResponse(code, new HashMap<String, String>(), body);
+    }
+
     @Test
     public void testClearEmptyJson() {
-        Response r = mock(Response.class);
-        when(r.getCode()).thenReturn(200);
-        when(r.getBody()).thenReturn("");
+        TransportResponse r = response(200, "");
 
         thrown.expect(JumblrException.class);
         ResponseWrapper got = rb.clear(r);
     }
 
+    @Test
+    public void testClearWithoutResponse() {
+        TransportResponse r = response(200, "{\"meta\":{\"status\":200,\"msg\":\"OK\"}}");
+
+        thrown.expect(JumblrException.class);
+        rb.clear(r);
+    }
+
+    @Test
+    public void testClearDecodesResponseMember() {
+        TransportResponse r = response(200, "{\"meta\":{\"status\":200,\"msg\":\"OK\"},"
+                + "\"response\":{\"total_posts\":2,\"posts\":[{\"type\":\"text\",\"id\":1,\"title\":\"hi\"},"
+                + "{\"type\":\"quote\",\"id\":2,\"text\":\"q\"}]}}");
+
+        ResponseWrapper wrapper = rb.clear(r);
+        List<Post> posts = wrapper.getPosts();
+        assertEquals(2, posts.size());
+        assertEquals("hi", ((TextPost) posts.get(0)).getTitle());
+        assertEquals(Long.valueOf(2L), posts.get(1).getId());
+        assertSame(posts, wrapper.getPosts());
+    }
+
+    @Test
+    public void testClearDecodesBytesWithoutBuildingAString() {
+        byte[] body = "{\"response\":{\"blog\":{\"name\":\"caf\u00e9\"}}}".getBytes(StandardCharsets.ISO_8859_1);
+        TransportResponse r = new TransportResponse(200, null, body, StandardCharsets.ISO_8859_1) {
+            @Override
+            public String getBody() {
+                throw new AssertionError("the body should be streamed");
+            }
+        };
+
+        assertEquals("caf\u00e9", rb.clear(r).getBlog().getName());
+        assertEquals(body.length, r.getBodyLength());
+    }
+
+    @Test
+    public void testClearDecodesWholeResponse() {
+        TransportResponse r = response(200, "{\"meta\":{\"status\":200,\"msg\":\"OK\"},"
+                + "\"response\":{\"total_notes\":3,\"notes\":[{\"type\":\"like\"}]}}");
+
+        Notes notes = rb.clear(r).getNotes();
+        assertEquals(Long.valueOf(3L), notes.getTotalNotes());
+        assertEquals(1, notes.getNotes().size());
+    }
+
+    @Test
+    public void testClearDecodesEachAccessorOnce() throws IOException {
+        TransportResponse r = response(201, "{\"response\":{\"id\":42,\"blog\":{\"name\":\"b\"}}}");
+
+        ResponseWrapper wrapper = rb.clear(r);
+        assertEquals(Long.valueOf(42L), wrapper.getId());
+        Blog blog = wrapper.getBlog();
+        assertEquals("b", blog.getName());
+        assertSame(blog, wrapper.getBlog());
+
+        // without a body to read again, a wrapper is decoded once
+        ResponseWrapper once = ResponseWrapper.open(new StringReader(r.getBody()), null);
+        once.getId();
+        thrown.expect(IllegalStateException.class);
+        once.getBlog();
+    }
+
+    @Test
+    public void testMalformedResponseRaisesJumblrException() {
+        TransportResponse r = response(201, "{\"response\":{\"posts\":[{\"type\":\"text\",\"id\":\"x\"}]}}");
+
+        ResponseWrapper wrapper = rb.clear(r);
+        try {
+            wrapper.getPosts();
+            fail();
+        } catch (JumblrException e) {
+            assertEquals(201, e.getResponseCode());
+            assertTrue(e.getMessage().startsWith("Malformed response"));
+            assertNotNull(e.getCause());
+        }
+    }
+
+    @Test
+    public void testClientCodecIsShared() {
+        JumblrClient client = new JumblrClient("abc", "def");
+        assertSame(client.getCodec(), client.getRequestBuilder().getCodec());
+        assertSame(client.getCodec().getGson(), client.getCodec().getGson());
+
+        ResponseCodec codec = new ResponseCodec();
+        client.setCodec(codec);
+        assertSame(codec, client.getRequestBuilder().getCodec());
+    }
+
+    @Test
+    public void testRequestsGoThroughTransport() {
+        final List<TransportRequest> sent = new ArrayList<TransportRequest>();
+        JumblrClient client = new JumblrClient("abc", "def", "ghi", "jkl");
+        client.getRequestBuilder().setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                sent.add(request);
+                return response(201, "{\"response\":{\"id\":42}}");
+            }
+        });
+        Map<String, String> map = new HashMap<String, String>();
+        map.put("id", "7");
+        client.getRequestBuilder().post("/user/like", map);
+
+        TransportRequest request = sent.get(0);
+        assertEquals(Verb.POST, request.getVerb());
+        assertEquals("https://api.tumblr.com/v2/user/like", request.getUrl());
+        assertTrue(request.getHeaders().get("Authorization").startsWith("OAuth "));
+        assertEquals("application/x-www-form-urlencoded", request.getContentType());
+        assertEquals("id=7", new String(request.getBody()));
+    }
+
+    @Test
+    public void testRedirectUrlIsNotFollowed() {
+        final List<TransportRequest> sent = new ArrayList<TransportRequest>();
+        JumblrClient client = new JumblrClient("abc", "def");
+        client.getRequestBuilder().setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                sent.add(request);
+                Map<String, String> headers = new HashMap<String, String>();
+                headers.put("location", "https://assets.tumblr.com/avatar_64.png");
+                return new TransportResponse(302, headers, "");
+            }
+        });
+
+        assertEquals("https://assets.tumblr.com/avatar_64.png", client.blogAvatar("hey", 64));
+        assertFalse(sent.get(0).isFollowRedirects());
+    }
+
     @Test
     public void testGetParams() {
         JumblrClient client = new JumblrClient("abc", "def");
@@ -52,9 +192,7 @@ public class RequestBuilderTest {
 
     @Test
     public void testXauthForbidden() {
-        Response r = mock(Response.class);
-        when(r.getCode()).thenReturn(403);
-        when(r.getBody()).thenReturn("");
+        TransportResponse r = response(403, "");
 
         thrown.expect(JumblrException.class);
         rb.clearXAuth(r);
@@ -62,9 +200,7 @@ public class RequestBuilderTest {
 
     @Test
     public void testXauthSuccess() {
-        Response r = mock(Response.class);
-        when(r.getCode()).thenReturn(200);
-        when(r.getBody()).thenReturn("oauth_token=valueForToken&oauth_token_secret=valueForSecret");
+        TransportResponse r = response(200, "oauth_token=valueForToken&oauth_token_secret=valueForSecret");
 
         Token token = rb.clearXAuth(r);
         assertEquals(token.getToken(), "valueForToken");
@@ -73,9 +209,7 @@ public class RequestBuilderTest {
 
     @Test
     public void testXauthSuccessWithExtra() {
-        Response r = mock(Response.class);
-        when(r.getCode()).thenReturn(201);
-        when(r.getBody()).thenReturn("oauth_token=valueForToken&oauth_token_secret=valueForSecret&other=paramisokay");
+        TransportResponse r = response(201, "oauth_token=valueForToken&oauth_token_secret=valueForSecret&other=paramisokay");
 
         Token token = rb.clearXAuth(r);
         assertEquals(token.getToken(), "valueForToken");
@@ -84,9 +218,7 @@ public class RequestBuilderTest {
 
     @Test
     public void testXauthBadResponseGoodCode() {
-        Response r = mock(Response.class);
-        when(r.getCode()).thenReturn(200);
-        when(r.getBody()).thenReturn("");
+        TransportResponse r = response(200, "");
 
         thrown.expect(JumblrException.class);
         rb.clearXAuth(r);
@@ -0,0 +1,150 @@
+package com.tumblr.jumblr.request;
+
+import com.tumblr.jumblr.exceptions.JumblrException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for telling a RequestListener about calls
+ */
+public class RequestListenerTest {
+
+    private static final String BODY = "{\"response\":{\"blog\":{\"name\":\"staff\"}}}";
+
+    private RequestBuilder builder;
+    private LinkedList<Integer> codes;
+    private List<String> heard;
+
+    @Before
+    public void setup() {
+        codes = new LinkedList<Integer>();
+        heard = new ArrayList<String>();
+        builder = new RequestBuilder(null);
+        builder.setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                int code = codes.isEmpty() ? 200 : codes.removeFirst();
+                return new TransportResponse(code, new HashMap<String, String>(), BODY);
+            }
+        });
+        builder.setRequestListener(new RequestListener() {
+            @Override
+            public void requestStart(RequestEvent event) {
+                heard.add("start " + event.getVerb() + " " + event.getPathTemplate());
+            }
+
+            @Override
+            public void requestSigned(RequestEvent event) {
+                heard.add("signed " + event.getAttempt() + " " + event.getRequestBytes());
+            }
+
+            @Override
+            public void responseReceived(RequestEvent event) {
+                assertTrue(event.getAttemptNanos() >= 0);
+                heard.add("received " + event.getStatus() + " " + event.getResponseBytes());
+            }
+
+            @Override
+            public void responseDecoded(RequestEvent event) {
+                assertTrue(event.getDecodeNanos() >= 0);
+                heard.add("decoded " + event.getRetryCount());
+            }
+
+            @Override
+            public void requestFailed(RequestEvent event, RuntimeException error) {
+                heard.add("failed " + error.getClass().getSimpleName());
+            }
+        });
+    }
+
+    @Test
+    public void testTemplates() {
+        assertEquals("/blog/{blog}/posts/photo", RequestEvent.template("/blog/staff.tumblr.com/posts/photo"));
+        assertEquals("/blog/{blog}/avatar/{size}", RequestEvent.template("/blog/staff.tumblr.com/avatar/64"));
+        assertEquals("/blog/{blog}/post/delete", RequestEvent.template("/blog/staff/post/delete"));
+        assertEquals("/user/dashboard", RequestEvent.template("/user/dashboard"));
+        assertEquals("/posts/{id}", RequestEvent.template("/posts/1234"));
+        assertEquals("/oauth/access_token", RequestEvent.template(null));
+    }
+
+    @Test
+    public void testSuccessfulCall() {
+        assertEquals("staff", builder.get("/blog/staff.tumblr.com/info", null).getBlog().getName());
+        assertEquals(Arrays.asList("start GET /blog/{blog}/info", "signed 1 0", "received 200 " + BODY.length(),
+                "decoded 0"), heard);
+    }
+
+    @Test
+    public void testRetriedCall() {
+        builder.setRetryPolicy(new RetryPolicy(RetryPolicy.builder().backoff(1, 1, TimeUnit.MILLISECONDS)) {
+            @Override
+            protected void sleep(long millis) {
+            }
+        });
+        codes.add(503);
+        Map<String, String> params = new HashMap<String, String>();
+        params.put("title", "hi");
+        builder.post("/blog/staff.tumblr.com/post/edit", params).getBlog();
+        assertEquals(Arrays.asList("start POST /blog/{blog}/post/edit", "signed 1 8", "received 503 " + BODY.length(),
+                "signed 2 8", "received 200 " + BODY.length(), "decoded 1"), heard);
+    }
+
+    @Test
+    public void testFailedCall() {
+        codes.add(404);
+        try {
+            builder.get("/blog/nobody.tumblr.com/info", null);
+            fail();
+        } catch (JumblrException e) {
+            assertEquals(Arrays.asList("start GET /blog/{blog}/info", "signed 1 0", "received 404 " + BODY.length(),
+                    "failed JumblrException"), heard);
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        final List<String> meters = new ArrayList<String>();
+        builder.setRequestListener(new MetricsRequestListener(new MetricsRequestListener.MeterSink() {
+            @Override
+            public void timer(String name, long nanos, String... tags) {
+                meters.add(name + " " + Arrays.toString(tags));
+            }
+
+            @Override
+            public void summary(String name, long amount, String... tags) {
+                meters.add(name + " " + amount + " " + Arrays.toString(tags));
+            }
+
+            @Override
+            public void counter(String name, long amount, String... tags) {
+                meters.add(name + " " + amount + " " + Arrays.toString(tags));
+            }
+        }));
+        builder.get("/user/info", null).getBlog();
+        codes.add(401);
+        try {
+            builder.get("/user/info", null);
+            fail();
+        } catch (JumblrException e) {
+            // expected
+        }
+        assertEquals(Arrays.asList(
+                "jumblr.client.request.size 0 [method, GET, uri, /user/info]",
+                "jumblr.client.requests [method, GET, uri, /user/info, status, 200, outcome, SUCCESS]",
+                "jumblr.client.response.size " + BODY.length() + " [method, GET, uri, /user/info]",
+                "jumblr.client.decode [method, GET, uri, /user/info]",
+                "jumblr.client.request.size 0 [method, GET, uri, /user/info]",
+                "jumblr.client.requests [method, GET, uri, /user/info, status, 401, outcome, CLIENT_ERROR]",
+                "jumblr.client.response.size " + BODY.length() + " [method, GET, uri, /user/info]",
+                "jumblr.client.errors 1 [method, GET, uri, /user/info, exception, JumblrException]"), meters);
+    }
+
+}
@@ -0,0 +1,152 @@
+package com.tumblr.jumblr.request;
+
+import com.tumblr.jumblr.exceptions.JumblrException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.scribe.exceptions.OAuthConnectionException;
+import org.scribe.model.Verb;
+
+/**
+ * Tests for RetryPolicy, on its own and within RequestBuilder
+ */
+public class RetryPolicyTest {
+
+    private List<Long> sleeps;
+    private RetryPolicy policy;
+
+    @Before
+    public void setup() {
+        sleeps = new ArrayList<Long>();
+        policy = new RetryPolicy(RetryPolicy.builder().maxAttempts(3).backoff(100, 1000, TimeUnit.MILLISECONDS)) {
+            @Override
+            protected void sleep(long millis) {
+                sleeps.add(millis);
+            }
+        };
+    }
+
+    private static TransportResponse response(int code, String retryAfter) {
+        Map<String, String> headers = new HashMap<String, String>();
+        if (retryAfter != null) {
+            headers.put("Retry-After", retryAfter);
+        }
+        return new TransportResponse(code, headers, code == 200 ? "{\"response\":{}}" : "{\"meta\":{\"msg\":\"Nope\"}}");
+    }
+
+    private RequestBuilder builder(final List<TransportRequest> sent, final Object... results) {
+        final Iterator<Object> next = Arrays.asList(results).iterator();
+        RequestBuilder builder = new RequestBuilder(null);
+        builder.setConsumer("ck", "cs");
+        builder.setToken("t", "ts");
+        builder.setRetryPolicy(policy);
+        builder.setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) throws IOException {
+                sent.add(request);
+                Object result = next.next();
+                if (result instanceof IOException) {
+                    throw (IOException) result;
+                }
+                return (TransportResponse) result;
+            }
+        });
+        return builder;
+    }
+
+    @Test
+    public void testBackoffIsBoundedAndJittered() {
+        for (int i = 0; i < 50; i++) {
+            long first = policy.retryDelay(1, Verb.GET, "/user/info", response(503, null));
+            long second = policy.retryDelay(2, Verb.GET, "/user/info", response(503, null));
+            assertTrue(first >= 0 && first <= 100);
+            assertTrue(second >= 0 && second <= 200);
+            assertEquals(-1, policy.retryDelay(3, Verb.GET, "/user/info", response(503, null)));
+        }
+        assertEquals(100, policy.getRetryCount());
+        assertEquals(50, policy.getExhaustedCount());
+    }
+
+    @Test
+    public void testRetryAfter() {
+        long unreadable = policy.retryDelay(1, Verb.GET, "/user/info", response(429, "soon"));
+        assertTrue(unreadable >= 0 && unreadable <= 100);
+        assertTrue(policy.retryDelay(1, Verb.GET, "/user/info", response(429, "1")) >= 1000);
+        assertEquals(-1, policy.retryDelay(1, Verb.GET, "/user/info", response(429, "120")));
+        assertEquals(2000, RetryPolicy.retryAfterMillis("2"));
+        assertEquals(0, RetryPolicy.retryAfterMillis("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(-1, RetryPolicy.retryAfterMillis(null));
+    }
+
+    @Test
+    public void testOnlyRetryableResponses() {
+        assertEquals(-1, policy.retryDelay(1, Verb.GET, "/user/info", response(404, null)));
+        assertEquals(-1, policy.retryDelay(1, Verb.GET, "/user/info", response(200, null)));
+        assertEquals(-1, policy.retryDelay(1, Verb.GET, "/user/info", new java.io.InterruptedIOException()));
+        assertTrue(policy.retryDelay(1, Verb.GET, "/user/info", new IOException()) >= 0);
+    }
+
+    @Test
+    public void testPostCreationIsNotReplayed() {
+        assertFalse(policy.isReplayable(Verb.POST, "/blog/hey.tumblr.com/post"));
+        assertFalse(policy.isReplayable(Verb.POST, "/blog/hey.tumblr.com/post/reblog"));
+        assertFalse(policy.isReplayable(Verb.POST, null));
+        assertTrue(policy.isReplayable(Verb.POST, "/blog/hey.tumblr.com/post/edit"));
+        assertTrue(policy.isReplayable(Verb.POST, "/user/like"));
+        assertEquals(-1, policy.retryDelay(1, Verb.POST, "/blog/hey.tumblr.com/post", response(503, null)));
+        assertEquals(-1, policy.retryDelay(1, Verb.POST, "/blog/hey.tumblr.com/post", new IOException()));
+        // turned away before doing anything
+        assertTrue(policy.retryDelay(1, Verb.POST, "/blog/hey.tumblr.com/post", response(429, null)) >= 0);
+        RetryPolicy unsafe = RetryPolicy.builder().retryUnsafe(true).build();
+        assertTrue(unsafe.isReplayable(Verb.POST, "/blog/hey.tumblr.com/post"));
+    }
+
+    @Test
+    public void testRequestBuilderRetriesGets() {
+        List<TransportRequest> sent = new ArrayList<TransportRequest>();
+        RequestBuilder builder = builder(sent, response(503, null), new IOException("reset"), response(200, null));
+        assertNotNull(builder.get("/user/info", null));
+        assertEquals(3, sent.size());
+        assertEquals(2, sleeps.size());
+        // every attempt is signed again
+        assertFalse(sent.get(0).getHeaders().get("Authorization").equals(sent.get(2).getHeaders().get("Authorization")));
+    }
+
+    @Test
+    public void testRequestBuilderGivesUp() {
+        List<TransportRequest> sent = new ArrayList<TransportRequest>();
+        RequestBuilder builder = builder(sent, response(502, null), response(502, null), response(502, "3"));
+        try {
+            builder.get("/user/info", null);
+            fail();
+        } catch (JumblrException e) {
+            assertEquals(502, e.getResponseCode());
+            assertEquals("3", e.getRetryAfter());
+        }
+        assertEquals(3, sent.size());
+        assertEquals(1, policy.getExhaustedCount());
+    }
+
+    @Test
+    public void testRequestBuilderDoesNotReplayPostCreation() {
+        List<TransportRequest> sent = new ArrayList<TransportRequest>();
+        RequestBuilder builder = builder(sent, new IOException("reset"), response(201, null));
+        Map<String, String> detail = new HashMap<String, String>();
+        detail.put("type", "text");
+        try {
+            builder.post("/blog/hey.tumblr.com/post", detail);
+            fail();
+        } catch (OAuthConnectionException e) {
+            assertEquals(1, sent.size());
+        }
+    }
+
+}
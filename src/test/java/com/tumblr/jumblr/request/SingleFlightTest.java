@@ -0,0 +1,223 @@
+package com.tumblr.jumblr.request;
+
+import com.tumblr.jumblr.exceptions.JumblrException;
+import com.tumblr.jumblr.responses.ResponseWrapper;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.*;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for sharing concurrent identical GETs
+ */
+public class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private ExecutorService executor;
+    private RequestBuilder builder;
+    private AtomicInteger calls;
+    private CountDownLatch release;
+    private volatile int code = 200;
+
+    @Before
+    public void setup() {
+        executor = Executors.newFixedThreadPool(CALLERS);
+        calls = new AtomicInteger();
+        release = new CountDownLatch(1);
+        builder = new RequestBuilder(null);
+        builder.setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                calls.incrementAndGet();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new TransportResponse(code, null, "{\"response\":{\"blog\":{\"name\":\"staff\"}}}");
+            }
+        });
+    }
+
+    @After
+    public void teardown() {
+        executor.shutdownNow();
+    }
+
+    private List<Future<ResponseWrapper>> concurrentGets(final String path) throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(CALLERS);
+        List<Future<ResponseWrapper>> results = new ArrayList<Future<ResponseWrapper>>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(new Callable<ResponseWrapper>() {
+                @Override
+                public ResponseWrapper call() {
+                    started.countDown();
+                    return builder.get(path, null);
+                }
+            }));
+        }
+        started.await();
+        // give every caller the time to join the call in flight
+        Thread.sleep(100);
+        release.countDown();
+        return results;
+    }
+
+    @Test
+    public void testConcurrentIdenticalGetsShareOneCall() throws Exception {
+        SingleFlight flights = new SingleFlight();
+        builder.setSingleFlight(flights);
+        List<Future<ResponseWrapper>> results = concurrentGets("/blog/staff.tumblr.com/info");
+
+        ResponseWrapper first = results.get(0).get();
+        for (Future<ResponseWrapper> result : results) {
+            assertSame(first, result.get());
+            assertEquals("staff", result.get().getBlog().getName());
+        }
+        assertEquals(1, calls.get());
+        assertEquals(CALLERS - 1, flights.getSharedCount());
+        assertEquals(0, flights.getInFlight());
+
+        builder.get("/blog/staff.tumblr.com/info", null);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testSharedResponseDecodedThroughDifferentAccessors() throws Exception {
+        builder.setSingleFlight(new SingleFlight());
+        List<Future<ResponseWrapper>> results = concurrentGets("/blog/staff.tumblr.com/info");
+
+        assertEquals("staff", results.get(0).get().getBlog().getName());
+        assertNull(results.get(1).get().getPost());
+        assertEquals("staff", results.get(1).get().getBlog().getName());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    public void testFailuresAreShared() throws Exception {
+        code = 503;
+        builder.setSingleFlight(new SingleFlight());
+        for (Future<ResponseWrapper> result : concurrentGets("/blog/staff.tumblr.com/info")) {
+            try {
+                result.get();
+                fail();
+            } catch (ExecutionException e) {
+                assertEquals(503, ((JumblrException) e.getCause()).getResponseCode());
+            }
+        }
+        assertEquals(1, calls.get());
+    }
+
+    /**
+     * Counts the callbacks a RequestListener gets
+     */
+    private static class CountingListener implements RequestListener {
+
+        final AtomicInteger started = new AtomicInteger();
+        final AtomicInteger signed = new AtomicInteger();
+        final AtomicInteger coalesced = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        @Override
+        public void requestStart(RequestEvent event) {
+            started.incrementAndGet();
+        }
+
+        @Override
+        public void requestSigned(RequestEvent event) {
+            signed.incrementAndGet();
+        }
+
+        @Override
+        public void requestCoalesced(RequestEvent event) {
+            assertTrue(event.isCoalesced());
+            assertEquals(0, event.getAttempt());
+            coalesced.incrementAndGet();
+        }
+
+        @Override
+        public void requestFailed(RequestEvent event, RuntimeException error) {
+            failed.incrementAndGet();
+        }
+
+    }
+
+    @Test
+    public void testWaitingCallersAreReported() throws Exception {
+        CountingListener listener = new CountingListener();
+        builder.setRequestListener(listener);
+        builder.setSingleFlight(new SingleFlight());
+        for (Future<ResponseWrapper> result : concurrentGets("/blog/staff.tumblr.com/info")) {
+            result.get();
+        }
+        assertEquals(CALLERS, listener.started.get());
+        assertEquals(1, listener.signed.get());
+        assertEquals(CALLERS - 1, listener.coalesced.get());
+        assertEquals(0, listener.failed.get());
+    }
+
+    @Test
+    public void testWaitingCallersAreReportedFailed() throws Exception {
+        code = 503;
+        CountingListener listener = new CountingListener();
+        builder.setRequestListener(listener);
+        builder.setSingleFlight(new SingleFlight());
+        for (Future<ResponseWrapper> result : concurrentGets("/blog/staff.tumblr.com/info")) {
+            try {
+                result.get();
+                fail();
+            } catch (ExecutionException e) {
+                // expected
+            }
+        }
+        assertEquals(CALLERS, listener.failed.get());
+        assertEquals(0, listener.coalesced.get());
+    }
+
+    @Test
+    public void testOnlyAcceptedPathsAreShared() throws Exception {
+        builder.setSingleFlight(new SingleFlight(path -> path.endsWith("/info")));
+        for (Future<ResponseWrapper> result : concurrentGets("/user/dashboard")) {
+            result.get();
+        }
+        assertEquals(CALLERS, calls.get());
+    }
+
+    @Test
+    public void testKeys() {
+        Map<String, Object> params = new LinkedHashMap<String, Object>();
+        params.put("offset", 20);
+        params.put("limit", 10);
+        Map<String, Object> reordered = new HashMap<String, Object>();
+        reordered.put("limit", "10");
+        reordered.put("offset", "20");
+        assertEquals("/user/dashboard?limit=10&offset=20 tok", SingleFlight.key("/user/dashboard", params, "tok"));
+        assertEquals(SingleFlight.key("/user/dashboard", params, "tok"),
+                SingleFlight.key("/user/dashboard", reordered, "tok"));
+        assertFalse(SingleFlight.key("/user/dashboard", params, "tok")
+                .equals(SingleFlight.key("/user/dashboard", params, "other")));
+        assertEquals("/user/info ", SingleFlight.key("/user/info", null, null));
+
+        Map<String, Object> smuggled = new HashMap<String, Object>();
+        smuggled.put("a", "1&b=2");
+        Map<String, Object> separate = new LinkedHashMap<String, Object>();
+        separate.put("a", "1");
+        separate.put("b", "2");
+        assertFalse(SingleFlight.key("/tagged", smuggled, null).equals(SingleFlight.key("/tagged", separate, null)));
+    }
+
+}
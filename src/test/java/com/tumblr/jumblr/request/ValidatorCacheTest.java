@@ -0,0 +1,98 @@
+package com.tumblr.jumblr.request;
+
+import com.tumblr.jumblr.responses.ResponseWrapper;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.Posts;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for conditional GETs through ValidatorCache
+ */
+public class ValidatorCacheTest {
+
+    private RequestBuilder builder;
+    private ValidatorCache cache;
+    private List<TransportRequest> sent;
+    private Map<String, String> headers;
+
+    @Before
+    public void setup() {
+        sent = new ArrayList<TransportRequest>();
+        headers = new HashMap<String, String>();
+        headers.put("ETag", "\"v1\"");
+        headers.put("Last-Modified", "Wed, 21 Oct 2015 07:28:00 GMT");
+        cache = new ValidatorCache();
+        builder = new RequestBuilder(null);
+        builder.setConsumer("ck", "cs");
+        builder.setToken("t", "ts");
+        builder.setValidatorCache(cache);
+        builder.setTransport(new Transport() {
+            @Override
+            public TransportResponse execute(TransportRequest request) {
+                sent.add(request);
+                if ("\"v1\"".equals(request.getHeaders().get("If-None-Match"))) {
+                    return new TransportResponse(304, new HashMap<String, String>(), "");
+                }
+                return new TransportResponse(200, headers,
+                        "{\"response\":{\"posts\":[{\"type\":\"text\",\"id\":1}]}}");
+            }
+        });
+    }
+
+    @Test
+    public void testNotModifiedReturnsThePreviousResponse() {
+        ResponseWrapper first = builder.get("/blog/hey.tumblr.com/posts", null);
+        List<Post> posts = first.getPosts();
+        assertNull(sent.get(0).getHeaders().get("If-None-Match"));
+
+        ResponseWrapper second = builder.get("/blog/hey.tumblr.com/posts", null);
+        assertEquals("\"v1\"", sent.get(1).getHeaders().get("If-None-Match"));
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", sent.get(1).getHeaders().get("If-Modified-Since"));
+        assertSame(first, second);
+        assertSame(posts, second.getPosts());
+        assertEquals(1, cache.getNotModifiedCount());
+    }
+
+    @Test
+    public void testNotModifiedResponseReadThroughAnotherAccessor() {
+        List<Post> posts = builder.get("/user/dashboard", null).getPosts();
+        ResponseWrapper second = builder.get("/user/dashboard", null);
+        assertEquals(1, cache.getNotModifiedCount());
+
+        Posts page = second.getPostsWithLinks();
+        assertEquals(1, page.getPosts().size());
+        assertEquals(Long.valueOf(1L), page.getPosts().get(0).getId());
+        assertSame(posts, second.getPosts());
+    }
+
+    @Test
+    public void testKeyedOnUrlAndToken() {
+        builder.get("/blog/hey.tumblr.com/posts", null);
+        Map<String, String> options = new HashMap<String, String>();
+        options.put("offset", "20");
+        builder.get("/blog/hey.tumblr.com/posts", options);
+        assertNull(sent.get(1).getHeaders().get("If-None-Match"));
+
+        builder.setToken("other", "ts");
+        builder.get("/blog/hey.tumblr.com/posts", null);
+        assertNull(sent.get(2).getHeaders().get("If-None-Match"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    public void testResponsesWithoutValidatorsAreNotKept() {
+        headers.clear();
+        builder.get("/blog/hey.tumblr.com/posts", null);
+        builder.get("/blog/hey.tumblr.com/posts", null);
+        assertNull(sent.get(1).getHeaders().get("If-None-Match"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getStoredCount());
+    }
+
+}
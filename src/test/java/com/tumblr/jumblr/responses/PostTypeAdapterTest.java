@@ -0,0 +1,101 @@
+package com.tumblr.jumblr.responses;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.QuotePost;
+import com.tumblr.jumblr.types.TextPost;
+import com.tumblr.jumblr.types.UnknownTypePost;
+import com.tumblr.jumblr.types.VideoPost;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the streaming PostTypeAdapter, against what PostDeserializer reads
+ */
+public class PostTypeAdapterTest {
+
+    private static final String POSTS = "[{\"type\":\"text\",\"id\":1,\"blog_name\":\"b\",\"title\":\"hi\","
+            + "\"body\":\"<p>x</p>\",\"tags\":[\"a\",\"b\"],\"extra\":{\"nested\":[1,2]}},"
+            + "{\"id\":2,\"tags\":[\"late\"],\"type\":\"quote\",\"text\":\"q\"},"
+            + "{\"id\":3},"
+            + "{\"type\":\"video\",\"id\":4,\"caption\":\"c\",\"player\":[{\"width\":250}]},"
+            + "null]";
+
+    private ResponseCodec codec;
+
+    @Before
+    public void setup() {
+        codec = new ResponseCodec();
+    }
+
+    private List<Post> read(Gson gson) {
+        return Arrays.asList(gson.fromJson(POSTS, Post[].class));
+    }
+
+    @Test
+    public void testReadsWhatPostDeserializerReads() {
+        List<Post> streamed = read(codec.getGson());
+        List<Post> tree = read(new GsonBuilder().registerTypeAdapter(Post.class, new PostDeserializer()).create());
+
+        assertEquals(tree.size(), streamed.size());
+        for (int i = 0; i < tree.size() - 1; i++) {
+            assertEquals(tree.get(i).getClass(), streamed.get(i).getClass());
+            assertEquals(tree.get(i).getId(), streamed.get(i).getId());
+            assertEquals(tree.get(i).getTags(), streamed.get(i).getTags());
+            assertEquals(tree.get(i).getBlogName(), streamed.get(i).getBlogName());
+        }
+        assertEquals("hi", ((TextPost) streamed.get(0)).getTitle());
+        assertEquals("<p>x</p>", ((TextPost) streamed.get(0)).getBody());
+        assertNull(streamed.get(4));
+    }
+
+    @Test
+    public void testMembersBeforeTheType() {
+        List<Post> posts = read(codec.getGson());
+        QuotePost quote = (QuotePost) posts.get(1);
+        assertEquals(Long.valueOf(2L), quote.getId());
+        assertEquals(Arrays.asList("late"), quote.getTags());
+        assertEquals("q", quote.getText());
+
+        assertTrue(posts.get(2) instanceof UnknownTypePost);
+        assertEquals(Long.valueOf(3L), posts.get(2).getId());
+        assertTrue(posts.get(3) instanceof VideoPost);
+    }
+
+    @Test
+    public void testBuiltInTypesAreReadInOnePass() {
+        assertTrue(codec.getGson().getAdapter(TextPost.class) instanceof SinglePassPostTypeAdapter);
+        assertTrue(codec.getGson().getAdapter(UnknownTypePost.class) instanceof SinglePassPostTypeAdapter);
+        assertFalse(codec.getGson().getAdapter(PollPost.class) instanceof SinglePassPostTypeAdapter);
+    }
+
+    @Test
+    public void testRegisteredClassOfItsOwn() {
+        codec.getPostTypes().register("poll", PollPost.class);
+        PollPost poll = (PollPost) codec.getGson().fromJson("{\"id\":6,\"type\":\"poll\",\"question\":\"q?\"}",
+                Post.class);
+        assertEquals(Long.valueOf(6L), poll.getId());
+        assertEquals("q?", poll.question);
+    }
+
+    public static class PollPost extends Post {
+        String question;
+    }
+
+    @Test
+    public void testRegisteredAndUnknownTypes() {
+        codec.getPostTypes().register("blocks", QuotePost.class);
+        Post blocks = codec.getGson().fromJson("{\"type\":\"blocks\",\"text\":\"t\"}", Post.class);
+        assertEquals("t", ((QuotePost) blocks).getText());
+
+        Post unknown = codec.getGson().fromJson("{\"type\":\"poll\",\"id\":5}", Post.class);
+        assertTrue(unknown instanceof UnknownTypePost);
+        assertEquals(Long.valueOf(5L), unknown.getId());
+        assertEquals(1, codec.getPostTypes().getUnknownTypeCount());
+    }
+
+}
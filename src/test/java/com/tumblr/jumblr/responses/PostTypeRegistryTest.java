@@ -0,0 +1,62 @@
+package com.tumblr.jumblr.responses;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.QuotePost;
+import com.tumblr.jumblr.types.TextPost;
+import com.tumblr.jumblr.types.UnknownTypePost;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for PostTypeRegistry
+ */
+public class PostTypeRegistryTest {
+
+    private PostTypeRegistry registry;
+    private Gson gson;
+
+    @Before
+    public void setup() {
+        registry = new PostTypeRegistry();
+        gson = new GsonBuilder().registerTypeAdapter(Post.class, new PostDeserializer(registry)).create();
+    }
+
+    @Test
+    public void testSeededFromPostTypes() {
+        for (Post.PostType type : Post.PostType.values()) {
+            if (type != Post.PostType.UNKNOWN) {
+                assertNotNull(type.getValue(), registry.lookup(type.getValue()));
+            }
+        }
+        assertNull(registry.lookup("unknown"));
+        assertTrue(gson.fromJson("{\"type\":\"text\"}", Post.class) instanceof TextPost);
+    }
+
+    @Test
+    public void testRegisteredType() {
+        registry.register("blocks", QuotePost.class);
+        assertTrue(gson.fromJson("{\"type\":\"blocks\"}", Post.class) instanceof QuotePost);
+        assertEquals(0, registry.getUnknownTypeCount());
+    }
+
+    @Test
+    public void testUnknownType() {
+        final List<String> seen = new ArrayList<String>();
+        registry.setUnknownTypeListener(new PostTypeRegistry.UnknownTypeListener() {
+            @Override
+            public void onUnknownType(String typeName) {
+                seen.add(typeName);
+            }
+        });
+
+        assertTrue(gson.fromJson("{\"type\":\"blocks\",\"id\":3}", Post.class) instanceof UnknownTypePost);
+        assertEquals(1, registry.getUnknownTypeCount());
+        assertEquals("blocks", seen.get(0));
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.tumblr.jumblr.responses;
+
+import com.google.gson.Gson;
+import com.tumblr.jumblr.types.AudioPost;
+import com.tumblr.jumblr.types.Post;
+import com.tumblr.jumblr.types.VideoPost;
+import java.util.Arrays;
+import static org.junit.Assert.*;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the single-pass video and audio adapters
+ */
+public class SinglePassPostTypeAdapterTest {
+
+    private Gson gson;
+
+    @Before
+    public void setup() {
+        gson = new ResponseCodec().getGson();
+    }
+
+    @Test
+    public void testVideoPost() {
+        String json = "{\"type\":\"video\",\"id\":123,\"blog_name\":\"seejohnrun\",\"tags\":[\"a\",\"b\"],"
+                + "\"note_count\":\"\",\"unknown_field\":{\"x\":[1,2]},\"caption\":\"hello\",\"thumbnail_width\":640,"
+                + "\"thumbnail_height\":480,\"player\":[{\"width\":250,\"embed_code\":\"embed\"}],\"data\":\"ignored\"}";
+        VideoPost post = (VideoPost) gson.fromJson(json, Post.class);
+
+        assertEquals(Long.valueOf(123L), post.getId());
+        assertEquals("seejohnrun", post.getBlogName());
+        assertEquals(Arrays.asList("a", "b"), post.getTags());
+        assertNull(post.getNoteCount());
+        assertEquals("hello", post.getCaption());
+        assertEquals(640, post.getThumbnailWidth());
+        assertEquals(480, post.getThumbnailHeight());
+        assertEquals("embed", post.getVideos().get(0).getEmbedCode());
+        assertNull(post.detail().get("data"));
+    }
+
+    @Test
+    public void testAudioPost() {
+        String json = "{\"type\":\"audio\",\"id\":7,\"reblog_key\":\"key\",\"plays\":12,\"artist\":\"someone\","
+                + "\"track_number\":3,\"player\":\"<embed/>\"}";
+        AudioPost post = (AudioPost) gson.fromJson(json, Post.class);
+
+        assertEquals(Long.valueOf(7L), post.getId());
+        assertEquals("key", post.getReblogKey());
+        assertEquals(Integer.valueOf(12), post.getPlayCount());
+        assertEquals("someone", post.getArtistName());
+        assertEquals(Integer.valueOf(3), post.getTrackNumber());
+        assertEquals("<embed/>", post.getEmbedCode());
+        assertNull(post.getYear());
+    }
+
+    @Test
+    public void testRoundTrip() {
+        String json = "{\"type\":\"audio\",\"id\":7,\"album\":\"an album\",\"year\":1999}";
+        AudioPost post = (AudioPost) gson.fromJson(json, Post.class);
+        AudioPost copy = gson.fromJson(gson.toJson(post, AudioPost.class), AudioPost.class);
+
+        assertEquals(post.getId(), copy.getId());
+        assertEquals("an album", copy.getAlbumName());
+        assertEquals(Integer.valueOf(1999), copy.getYear());
+    }
+
+}